@@ -0,0 +1,22 @@
+package hu.berenyilajos.chess.bench;
+
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.pieces.Piece;
+
+final class BenchmarkBoards {
+
+    private BenchmarkBoards() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    static Board copy(final Board board) {
+        final Board.Builder builder = new Board.Builder();
+        for (final Piece piece : board.getAllPieces()) {
+            builder.setPiece(piece);
+        }
+        builder.setMoveMaker(board.currentPlayer().getAlliance());
+        builder.setEnPassantPawn(board.getEnPassantPawn());
+        builder.setMoveGenerator(board.getMoveGenerator());
+        return builder.build();
+    }
+}
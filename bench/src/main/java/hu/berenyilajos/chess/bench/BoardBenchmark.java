@@ -0,0 +1,62 @@
+package hu.berenyilajos.chess.bench;
+
+import hu.berenyilajos.chess.board.BitboardMoveGenerator;
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.Move;
+import hu.berenyilajos.chess.board.PieceMoveGenerator;
+import hu.berenyilajos.chess.perft.PerftPosition;
+import hu.berenyilajos.chess.pgn.FenUtilities;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    @Param({"START", "KIWIPETE", "POSITION_4", "POSITION_6"})
+    public PerftPosition position;
+
+    @Param({"PIECE", "BITBOARD"})
+    public String generator;
+
+    private Board board;
+    private List<Move> moves;
+
+    @Setup
+    public void setUp() {
+        this.board = FenUtilities.createGameFromFEN(this.position.getFen())
+                .withMoveGenerator(this.generator.equals("BITBOARD") ? BitboardMoveGenerator.get() : PieceMoveGenerator.get());
+        this.moves = this.board.currentPlayer().getLegalMoves();
+    }
+
+    @Benchmark
+    public Board build() {
+        return BenchmarkBoards.copy(this.board);
+    }
+
+    @Benchmark
+    public List<Move> generateMoves() {
+        return this.board.calculateLegalMoves(this.board.currentPlayer().getActivePieces());
+    }
+
+    @Benchmark
+    public void execute(final Blackhole blackhole) {
+        for (final Move move : this.moves) {
+            blackhole.consume(move.execute());
+        }
+    }
+
+    @Benchmark
+    public void makeMove(final Blackhole blackhole) {
+        for (final Move move : this.moves) {
+            blackhole.consume(this.board.currentPlayer().makeMove(move));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package hu.berenyilajos.chess.bench;
+
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.engine.StandardBoardEvaluator;
+import hu.berenyilajos.chess.perft.PerftPosition;
+import hu.berenyilajos.chess.pgn.FenUtilities;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boards cache their players and legal moves, so every invocation evaluates a fresh copy. The copy alone is
+ * measured by {@link BoardBenchmark#build()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EvaluatorBenchmark {
+
+    @Param({"START", "KIWIPETE", "POSITION_4", "POSITION_6"})
+    public PerftPosition position;
+
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        this.board = FenUtilities.createGameFromFEN(this.position.getFen());
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return StandardBoardEvaluator.get().evaluate(BenchmarkBoards.copy(this.board), 0);
+    }
+}
@@ -0,0 +1,42 @@
+package hu.berenyilajos.chess.bench;
+
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.perft.PerftPosition;
+import hu.berenyilajos.chess.pgn.FenUtilities;
+import hu.berenyilajos.chess.pgn.PGNUtilities;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PgnBenchmark {
+
+    private Board startBoard;
+    private Board kiwipeteBoard;
+    private Board disambiguationBoard;
+
+    @Setup
+    public void setUp() {
+        this.startBoard = FenUtilities.createGameFromFEN(PerftPosition.START.getFen());
+        this.kiwipeteBoard = FenUtilities.createGameFromFEN(PerftPosition.KIWIPETE.getFen());
+        this.disambiguationBoard = FenUtilities.createGameFromFEN(PerftPosition.POSITION_5.getFen());
+    }
+
+    @Benchmark
+    public void createMove(final Blackhole blackhole) {
+        blackhole.consume(PGNUtilities.createMove(this.startBoard, "e4"));
+        blackhole.consume(PGNUtilities.createMove(this.startBoard, "Nf3"));
+        blackhole.consume(PGNUtilities.createMove(this.kiwipeteBoard, "O-O"));
+        blackhole.consume(PGNUtilities.createMove(this.kiwipeteBoard, "O-O-O"));
+        blackhole.consume(PGNUtilities.createMove(this.kiwipeteBoard, "Bxa6"));
+        blackhole.consume(PGNUtilities.createMove(this.kiwipeteBoard, "gxh3"));
+        blackhole.consume(PGNUtilities.createMove(this.disambiguationBoard, "Nbc3"));
+        blackhole.consume(PGNUtilities.createMove(this.disambiguationBoard, "Bxf7"));
+    }
+}
@@ -0,0 +1,69 @@
+package hu.berenyilajos.chess.bench;
+
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.Move;
+import hu.berenyilajos.chess.engine.StockAlphaBeta;
+import hu.berenyilajos.chess.engine.TranspositionTable;
+import hu.berenyilajos.chess.perft.PerftPosition;
+import hu.berenyilajos.chess.pgn.FenUtilities;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One strategy with a small transposition table is built per trial and the table is cleared before every
+ * invocation, so each search starts from the same empty table and neither allocating nor zeroing it is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int TRANSPOSITION_TABLE_MB = 4;
+
+    @Param({"START", "POSITION_3", "POSITION_6"})
+    public PerftPosition position;
+
+    @Param({"2", "3", "4"})
+    public int depth;
+
+    private Board board;
+    private TranspositionTable transpositionTable;
+    private StockAlphaBeta strategy;
+    private PrintStream out;
+
+    @Setup
+    public void setUp() {
+        this.board = FenUtilities.createGameFromFEN(this.position.getFen());
+        this.transpositionTable = new TranspositionTable(TRANSPOSITION_TABLE_MB);
+        this.strategy = new StockAlphaBeta.Builder(this.depth)
+                .setTranspositionTable(this.transpositionTable)
+                .build();
+        this.out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(final int b) {
+            }
+        }));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTranspositionTable() {
+        this.transpositionTable.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(this.out);
+    }
+
+    @Benchmark
+    public Move execute() {
+        return this.strategy.execute(this.board);
+    }
+}
@@ -0,0 +1,216 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pieces.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Move generator on top of {@link Bitboards}. Moves are emitted in the same order as the {@link Piece} generators
+ * (piece by piece, sliding rays in candidate offset order, nearest square first), so a search over either
+ * generator visits the same tree.
+ */
+public final class BitboardMoveGenerator implements MoveGenerator {
+
+    private static final int[] BISHOP_DIRECTIONS = { 0, 2, 5, 7 };
+    private static final int[] ROOK_DIRECTIONS = { 1, 3, 4, 6 };
+    private static final int[] QUEEN_DIRECTIONS = { 0, 1, 2, 3, 4, 5, 6, 7 };
+    private static final BitboardMoveGenerator INSTANCE = new BitboardMoveGenerator();
+
+    private BitboardMoveGenerator() {
+    }
+
+    public static BitboardMoveGenerator get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public List<Move> calculateLegalMoves(final Board board,
+                                          final List<Piece> pieces) {
+        final Bitboards bitboards = board.getBitboards();
+        final List<Move> legalMoves = new ArrayList<>();
+        for (final Piece piece : pieces) {
+            final int square = Bitboards.toSquare64(piece.getPosition());
+            final long own = bitboards.getOccupancy(piece.getAlliance());
+            final long occupied = bitboards.getOccupied();
+            switch (piece.getPieceType()) {
+                case PAWN:
+                    addPawnMoves(board, (Pawn) piece, occupied, legalMoves);
+                    break;
+                case KNIGHT:
+                    addMoves(board, piece, Bitboards.knightAttacks(square) & ~own, true, legalMoves);
+                    break;
+                case BISHOP:
+                    addSlidingMoves(board, piece, Bitboards.bishopAttacks(square, occupied) & ~own, BISHOP_DIRECTIONS, legalMoves);
+                    break;
+                case ROOK:
+                    addSlidingMoves(board, piece, Bitboards.rookAttacks(square, occupied) & ~own, ROOK_DIRECTIONS, legalMoves);
+                    break;
+                case QUEEN:
+                    addSlidingMoves(board, piece, Bitboards.queenAttacks(square, occupied) & ~own, QUEEN_DIRECTIONS, legalMoves);
+                    break;
+                case KING:
+                    addMoves(board, piece, Bitboards.kingAttacks(square) & ~own, true, legalMoves);
+                    break;
+                default:
+                    throw new RuntimeException("Unknown piece type: " + piece.getPieceType());
+            }
+        }
+        return legalMoves;
+    }
+
+    @Override
+    public List<Move> calculateAttackMoves(final Board board,
+                                           final List<Piece> pieces) {
+        final Bitboards bitboards = board.getBitboards();
+        final List<Move> attackMoves = new ArrayList<>();
+        for (final Piece piece : pieces) {
+            final int square = Bitboards.toSquare64(piece.getPosition());
+            final Alliance enemy = piece.getAlliance() == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+            final long enemies = bitboards.getOccupancy(enemy);
+            final long occupied = bitboards.getOccupied();
+            switch (piece.getPieceType()) {
+                case PAWN:
+                    addPawnAttackMoves(board, (Pawn) piece, occupied, attackMoves);
+                    break;
+                case KNIGHT:
+                    addMoves(board, piece, Bitboards.knightAttacks(square) & enemies, true, attackMoves);
+                    break;
+                case BISHOP:
+                    addSlidingMoves(board, piece, Bitboards.bishopAttacks(square, occupied) & enemies, BISHOP_DIRECTIONS, attackMoves);
+                    break;
+                case ROOK:
+                    addSlidingMoves(board, piece, Bitboards.rookAttacks(square, occupied) & enemies, ROOK_DIRECTIONS, attackMoves);
+                    break;
+                case QUEEN:
+                    addSlidingMoves(board, piece, Bitboards.queenAttacks(square, occupied) & enemies, QUEEN_DIRECTIONS, attackMoves);
+                    break;
+                case KING:
+                    addMoves(board, piece, Bitboards.kingAttacks(square) & enemies, true, attackMoves);
+                    break;
+                default:
+                    throw new RuntimeException("Unknown piece type: " + piece.getPieceType());
+            }
+        }
+        return attackMoves;
+    }
+
+    private static void addPawnAttackMoves(final Board board,
+                                           final Pawn pawn,
+                                           final long occupied,
+                                           final List<Move> attackMoves) {
+        final Alliance alliance = pawn.getAlliance();
+        final int position = pawn.getPosition();
+        final int push = position + alliance.getPositionByDirection(0x10);
+        if (alliance.isPawnPromotionSquare(push) && !isOccupied(occupied, push)) {
+            attackMoves.add(new Move.PawnPromotionMove(new Move.PawnMove(board, push, pawn), new Queen(alliance, push, false)));
+        }
+        addPawnAttacks(board, pawn, position + alliance.getPositionByDirection(0x0F),
+                position - alliance.getOppositeDirection(), occupied, false, attackMoves);
+        addPawnAttacks(board, pawn, position + alliance.getPositionByDirection(0x11),
+                position + alliance.getOppositeDirection(), occupied, false, attackMoves);
+    }
+
+    private static void addSlidingMoves(final Board board,
+                                        final Piece piece,
+                                        final long attacks,
+                                        final int[] directions,
+                                        final List<Move> legalMoves) {
+        final int square = Bitboards.toSquare64(piece.getPosition());
+        for (final int direction : directions) {
+            addMoves(board, piece, attacks & Bitboards.ray(direction, square), Bitboards.DIRECTIONS[direction] > 0, legalMoves);
+        }
+    }
+
+    private static void addMoves(final Board board,
+                                 final Piece piece,
+                                 long targets,
+                                 final boolean ascending,
+                                 final List<Move> legalMoves) {
+        while (targets != 0) {
+            final int target = ascending ? Long.numberOfTrailingZeros(targets) : 63 - Long.numberOfLeadingZeros(targets);
+            targets &= ~(1L << target);
+            final int destination = Bitboards.toPosition(target);
+            final Piece pieceAtDestination = board.getPiece(destination);
+            if (pieceAtDestination == null) {
+                legalMoves.add(new Move.MajorMove(board, destination, piece));
+            } else {
+                legalMoves.add(new Move.AttackMove(board, destination, piece, pieceAtDestination));
+            }
+        }
+    }
+
+    private static void addPawnMoves(final Board board,
+                                     final Pawn pawn,
+                                     final long occupied,
+                                     final List<Move> legalMoves) {
+        final Alliance alliance = pawn.getAlliance();
+        final int position = pawn.getPosition();
+        final int push = position + alliance.getPositionByDirection(0x10);
+        if (Piece.isValidTileCoordinate(push) && !isOccupied(occupied, push)) {
+            if (alliance.isPawnPromotionSquare(push)) {
+                for (final Piece promotionPiece : promotionPieces(alliance, push)) {
+                    legalMoves.add(new Move.PawnPromotionMove(new Move.PawnMove(board, push, pawn), promotionPiece));
+                }
+            } else {
+                legalMoves.add(new Move.PawnMove(board, push, pawn));
+            }
+        }
+        final int jump = position + alliance.getPositionByDirection(0x20);
+        if (Piece.isValidTileCoordinate(jump) && pawn.isFirstMove() && alliance.isSecondRow(position) &&
+                !isOccupied(occupied, jump) && !isOccupied(occupied, push)) {
+            legalMoves.add(new Move.PawnJumpMove(board, jump, pawn));
+        }
+        addPawnAttacks(board, pawn, position + alliance.getPositionByDirection(0x0F),
+                position - alliance.getOppositeDirection(), occupied, true, legalMoves);
+        addPawnAttacks(board, pawn, position + alliance.getPositionByDirection(0x11),
+                position + alliance.getOppositeDirection(), occupied, true, legalMoves);
+    }
+
+    private static void addPawnAttacks(final Board board,
+                                       final Pawn pawn,
+                                       final int destination,
+                                       final int enPassantPosition,
+                                       final long occupied,
+                                       final boolean underPromotions,
+                                       final List<Move> legalMoves) {
+        if (!Piece.isValidTileCoordinate(destination)) {
+            return;
+        }
+        final Alliance alliance = pawn.getAlliance();
+        if (isOccupied(occupied, destination)) {
+            final Piece pieceOnCandidate = board.getPiece(destination);
+            if (alliance != pieceOnCandidate.getAlliance()) {
+                if (alliance.isPawnPromotionSquare(destination)) {
+                    final Piece[] promotionPieces = underPromotions ? promotionPieces(alliance, destination) :
+                            new Piece[] { new Queen(alliance, destination, false) };
+                    for (final Piece promotionPiece : promotionPieces) {
+                        legalMoves.add(new Move.PawnPromotionAttackMove(
+                                new Move.PawnAttackMove(board, destination, pawn, pieceOnCandidate), promotionPiece));
+                    }
+                } else {
+                    legalMoves.add(new Move.PawnAttackMove(board, destination, pawn, pieceOnCandidate));
+                }
+            }
+        } else {
+            final Pawn enPassantPawn = board.getEnPassantPawn();
+            if (enPassantPawn != null && enPassantPawn.getPosition() == enPassantPosition &&
+                    alliance != enPassantPawn.getAlliance()) {
+                legalMoves.add(new Move.PawnEnPassantMove(board, destination, pawn, enPassantPawn));
+            }
+        }
+    }
+
+    private static boolean isOccupied(final long occupied, final int position) {
+        return (occupied & (1L << Bitboards.toSquare64(position))) != 0;
+    }
+
+    private static Piece[] promotionPieces(final Alliance alliance, final int destination) {
+        return new Piece[] {
+                new Queen(alliance, destination, false),
+                new Rook(alliance, destination, false),
+                new Bishop(alliance, destination, false),
+                new Knight(alliance, destination, false)
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pieces.Alliance;
+import hu.berenyilajos.chess.pieces.Piece;
+import hu.berenyilajos.chess.pieces.PieceType;
+
+/**
+ * 64-bit occupancy sets of a {@link Board}, one per piece type and colour, together with the precomputed
+ * knight, king, pawn and magic sliding attack tables. Bit {@code n} is the square {@code toSquare64(position)},
+ * so a8 is bit 0 and h1 is bit 63. The magic multipliers were found offline by random search for this square
+ * numbering, so building the lookup tables at class load is a single pass per square.
+ */
+public final class Bitboards {
+
+    public static final int[] DIRECTIONS = { -17, -16, -15, -1, 1, 15, 16, 17 };
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] RAYS = new long[DIRECTIONS.length][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = {
+            0x0480053081214000L, 0x0040100040002001L, 0x6080200080100008L, 0x0200082004411200L,
+            0x0200102008040200L, 0x1100240028210012L, 0x1080008001000200L, 0x0100020028488100L,
+            0x0001800220400086L, 0x2488804000802004L, 0x0C00801000200081L, 0x201C801000080080L,
+            0x0441000800100500L, 0x00A0808002000400L, 0x0125000402000100L, 0x0001002200409100L,
+            0x0280004020004000L, 0x5110084020004000L, 0x0001050020024011L, 0x0002020020081040L,
+            0x0800050008010010L, 0x81C0808002000400L, 0x8010808001000200L, 0x000006000100408CL,
+            0x0280400080008020L, 0x3000500040002000L, 0x8400200080801000L, 0x80A01001000D0020L,
+            0x900C001101000800L, 0x0110040080800200L, 0x1001000100040200L, 0x0060040200008041L,
+            0x4480804000800038L, 0x0040002001804080L, 0x2010882000801000L, 0x0000080282801000L,
+            0x0200080080800400L, 0x0206000400808002L, 0x2000020001010004L, 0x1014042042000091L,
+            0x0200208040008000L, 0x0040201000404002L, 0x0244200100110041L, 0x0041019000090020L,
+            0x0A28001100850008L, 0x0020020004008080L, 0x1001220108140010L, 0x8A0400408106000CL,
+            0x0000220100508200L, 0x6040048049003100L, 0x0000200011024300L, 0x0000900100082500L,
+            0x0870040008008080L, 0x0850800600040180L, 0x0006008104480200L, 0x1800040108B04200L,
+            0xD12C201080010341L, 0x0101042040008013L, 0x2801004008200273L, 0x001900614C500009L,
+            0x0202004461500802L, 0x0002001008040102L, 0x10001028B1080604L, 0x000D000040803201L
+    };
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = {
+            0x6460220208002480L, 0x8308C80104002010L, 0xB408121042008000L, 0x0C48205040021000L,
+            0x1002021000020000L, 0x0840882440802010L, 0x0080809008204040L, 0x00001402011028A0L,
+            0x088EC002040400B0L, 0x0005500608087180L, 0x0000A20089020010L, 0x000010908602C060L,
+            0x2810420210014000L, 0x0040024802400080L, 0x0408484230100840L, 0x00020A08A4011800L,
+            0x0020003062062848L, 0x0002504510440102L, 0xA23005310C008810L, 0x0048000104110044L,
+            0x010A000422010008L, 0x2021000200A0A400L, 0x0004400208124801L, 0x8000280480841000L,
+            0x8110100206600229L, 0x0814204102080909L, 0x00A0300002040840L, 0x8808080000202020L,
+            0x04040400C0410040L, 0x108404200C101400L, 0x01C1012000480802L, 0xA020520040420200L,
+            0x2404100800062001L, 0x0002014400208804L, 0x0100805000410402L, 0x0241420080080080L,
+            0x8040040444030100L, 0x0F50064242020110L, 0x0001020200888818L, 0x0801021200018069L,
+            0x2803086094A01040L, 0x2440482804444800L, 0x0002002024200804L, 0x880101420800C084L,
+            0x40A4182008200900L, 0x8420008102041040L, 0x00901001304A0508L, 0x0450021448519100L,
+            0x0402021002080A10L, 0x000D01009084020CL, 0x20800A0046480040L, 0x0000083020880220L,
+            0x0001010803040142L, 0x0000081001520000L, 0x0040100420809000L, 0x0022900428808202L,
+            0x0000404044202010L, 0x1008004044108804L, 0x1008305509415000L, 0x1000840400208840L,
+            0x0810260A12020201L, 0x3000A04410020210L, 0x0903102082008204L, 0x490808088808C308L
+    };
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            final int position = toPosition(square);
+            KNIGHT_ATTACKS[square] = leaperAttacks(position, BoardUtils.KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = leaperAttacks(position, BoardUtils.KING_OFFSETS);
+            PAWN_ATTACKS[Alliance.WHITE.ordinal()][square] = leaperAttacks(position, new int[] { -15, -17 });
+            PAWN_ATTACKS[Alliance.BLACK.ordinal()][square] = leaperAttacks(position, new int[] { 15, 17 });
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                RAYS[direction][square] = slidingAttacks(position, new int[] { DIRECTIONS[direction] }, 0L);
+            }
+            initMagic(square, BoardUtils.STRAIGHT_OFFSETS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS);
+            initMagic(square, BoardUtils.DIAGONAL_OFFSETS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS);
+        }
+    }
+
+    private final long[][] pieces = new long[2][PieceType.values().length];
+    private final long[] occupancy = new long[2];
+    private final long occupied;
+
+    Bitboards(final Board board) {
+        for (final Piece piece : board.getAllPieces()) {
+            final int alliance = piece.getAlliance().ordinal();
+            final long bit = 1L << toSquare64(piece.getPosition());
+            this.pieces[alliance][piece.getPieceType().ordinal()] |= bit;
+            this.occupancy[alliance] |= bit;
+        }
+        this.occupied = this.occupancy[0] | this.occupancy[1];
+    }
+
+    public long getPieces(final Alliance alliance, final PieceType pieceType) {
+        return this.pieces[alliance.ordinal()][pieceType.ordinal()];
+    }
+
+    public long getOccupancy(final Alliance alliance) {
+        return this.occupancy[alliance.ordinal()];
+    }
+
+    public long getOccupied() {
+        return this.occupied;
+    }
+
+    public boolean isAttacked(final int square, final Alliance attacker) {
+        final long[] attackers = this.pieces[attacker.ordinal()];
+        final long queens = attackers[PieceType.QUEEN.ordinal()];
+        final Alliance defender = attacker == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+        return (pawnAttacks(defender, square) & attackers[PieceType.PAWN.ordinal()]) != 0 ||
+                (knightAttacks(square) & attackers[PieceType.KNIGHT.ordinal()]) != 0 ||
+                (kingAttacks(square) & attackers[PieceType.KING.ordinal()]) != 0 ||
+                (rookAttacks(square, this.occupied) & (attackers[PieceType.ROOK.ordinal()] | queens)) != 0 ||
+                (bishopAttacks(square, this.occupied) & (attackers[PieceType.BISHOP.ordinal()] | queens)) != 0;
+    }
+
+    public static int toSquare64(final int position) {
+        return (position + (position & 7)) >> 1;
+    }
+
+    public static int toPosition(final int square) {
+        return square + (square & ~7);
+    }
+
+    public static long knightAttacks(final int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(final int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long pawnAttacks(final Alliance alliance, final int square) {
+        return PAWN_ATTACKS[alliance.ordinal()][square];
+    }
+
+    public static long ray(final int direction, final int square) {
+        return RAYS[direction][square];
+    }
+
+    public static long rookAttacks(final int square, final long occupied) {
+        return ROOK_ATTACKS[square][(int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishopAttacks(final int square, final long occupied) {
+        return BISHOP_ATTACKS[square][(int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(final int square, final long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    private static long leaperAttacks(final int position, final int[] offsets) {
+        long attacks = 0L;
+        for (final int offset : offsets) {
+            if (Piece.isValidTileCoordinate(position + offset)) {
+                attacks |= 1L << toSquare64(position + offset);
+            }
+        }
+        return attacks;
+    }
+
+    private static long slidingAttacks(final int position, final int[] offsets, final long occupied) {
+        long attacks = 0L;
+        for (final int offset : offsets) {
+            int target = position;
+            while (Piece.isValidTileCoordinate(target += offset)) {
+                final long bit = 1L << toSquare64(target);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+            }
+        }
+        return attacks;
+    }
+
+    private static long relevantOccupancy(final int position, final int[] offsets) {
+        long mask = 0L;
+        for (final int offset : offsets) {
+            int target = position + offset;
+            while (Piece.isValidTileCoordinate(target + offset)) {
+                mask |= 1L << toSquare64(target);
+                target += offset;
+            }
+        }
+        return mask;
+    }
+
+    private static void initMagic(final int square, final int[] offsets, final long[] masks, final long[] magics,
+                                  final int[] shifts, final long[][] attackTables) {
+        final int position = toPosition(square);
+        final long mask = relevantOccupancy(position, offsets);
+        final int bits = Long.bitCount(mask);
+        final long[] table = new long[1 << bits];
+        long subset = 0L;
+        do {
+            final int index = (int) ((subset * magics[square]) >>> (64 - bits));
+            final long attacks = slidingAttacks(position, offsets, subset);
+            if (table[index] != 0 && table[index] != attacks) {
+                throw new RuntimeException("Magic collision on square " + square);
+            }
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        masks[square] = mask;
+        shifts[square] = 64 - bits;
+        attackTables[square] = table;
+    }
+}
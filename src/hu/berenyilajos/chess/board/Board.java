@@ -1,5 +1,6 @@
 package hu.berenyilajos.chess.board;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import hu.berenyilajos.chess.pieces.*;
 import hu.berenyilajos.chess.player.BlackPlayer;
@@ -7,48 +8,58 @@ import hu.berenyilajos.chess.player.Player;
 import hu.berenyilajos.chess.player.WhitePlayer;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class Board {
 
-    private final Map<Integer, Piece> boardConfig;
+    private final Piece[] boardConfig;
     private final List<Piece> whitePieces;
     private final List<Piece> blackPieces;
-    private final WhitePlayer whitePlayer;
-    private final BlackPlayer blackPlayer;
-    private final Player currentPlayer;
+    private final Alliance nextMoveMaker;
     private final Pawn enPassantPawn;
     private final Move transitionMove;
+    private final MoveGenerator moveGenerator;
+    private final long zobristKey;
 
     private static final Board STANDARD_BOARD = createStandardBoardImpl();
 
+    private WhitePlayer whitePlayer;
+    private BlackPlayer blackPlayer;
     private List<Move> allLegalMoves;
+    private Map<Integer, Piece> boardConfigView;
+    private Bitboards bitboards;
 
     private Board(Builder builder) {
         this.boardConfig = builder.boardConfig;
         this.whitePieces = calculateActivePieces(Alliance.WHITE);
         this.blackPieces = calculateActivePieces(Alliance.BLACK);
         this.enPassantPawn = builder.enPassantPawn;
-        final List<Move> whiteStandardMoves = calculateLegalMoves(this.whitePieces);
-        final List<Move> blackStandardMoves = calculateLegalMoves(this.blackPieces);
-        this.whitePlayer = new WhitePlayer(this, whiteStandardMoves, blackStandardMoves);
-        this.blackPlayer = new BlackPlayer(this, blackStandardMoves, whiteStandardMoves);
-        this.currentPlayer = builder.nextMoveMaker.choosePlayerByAlliance(this.whitePlayer, this.blackPlayer);
+        this.nextMoveMaker = builder.nextMoveMaker;
         this.transitionMove = builder.transitionMove != null ? builder.transitionMove : Move.MoveFactory.getNullMove();
+        this.moveGenerator = builder.moveGenerator;
+        this.zobristKey = builder.zobristKeySet ? builder.zobristKey : Zobrist.calculateKey(this, nextMoveMaker);
     }
 
-    private List<Move> calculateLegalMoves(List<Piece> pieces) {
-        return pieces.stream().flatMap(piece -> piece.calculateLegalMoves(this).stream()).collect(Collectors.toList());
+    public List<Move> calculateLegalMoves(List<Piece> pieces) {
+        return moveGenerator.calculateLegalMoves(this, pieces);
+    }
+
+    public List<Move> calculateAttackMoves(List<Piece> pieces) {
+        return moveGenerator.calculateAttackMoves(this, pieces);
     }
 
     private List<Piece> calculateActivePieces(Alliance alliance) {
-        return boardConfig.values().stream()
-               .filter(piece -> piece.getAlliance() == alliance)
-               .collect(Collectors.toList());
+        final List<Piece> activePieces = new ArrayList<>(16);
+        for (int position = 0; position < boardConfig.length; position = (position + 9) & ~8) {
+            final Piece piece = boardConfig[position];
+            if (piece != null && piece.getAlliance() == alliance) {
+                activePieces.add(piece);
+            }
+        }
+        return activePieces;
     }
 
     public Piece getPiece(int position) {
-        return boardConfig.get(position);
+        return boardConfig[position];
     }
 
     public Pawn getEnPassantPawn() {
@@ -59,8 +70,46 @@ public class Board {
         return transitionMove;
     }
 
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public MoveGenerator getMoveGenerator() {
+        return moveGenerator;
+    }
+
+    public Bitboards getBitboards() {
+        if (bitboards == null) {
+            bitboards = new Bitboards(this);
+        }
+        return bitboards;
+    }
+
+    public Board withMoveGenerator(final MoveGenerator moveGenerator) {
+        if (this.moveGenerator == moveGenerator) {
+            return this;
+        }
+        final Builder builder = new Builder();
+        for (final Piece piece : getAllPieces()) {
+            builder.setPiece(piece);
+        }
+        builder.setMoveMaker(nextMoveMaker);
+        builder.setEnPassantPawn(enPassantPawn);
+        builder.setMoveTransition(transitionMove);
+        builder.setMoveGenerator(moveGenerator);
+        builder.setZobristKey(zobristKey);
+        return builder.build();
+    }
+
     public Map<Integer, Piece> getBoardConfig() {
-        return boardConfig;
+        if (boardConfigView != null) {
+            return boardConfigView;
+        }
+        final ImmutableMap.Builder<Integer, Piece> view = ImmutableMap.builder();
+        for (final Piece piece : getAllPieces()) {
+            view.put(piece.getPosition(), piece);
+        }
+        return boardConfigView = view.build();
     }
 
     public static Board createStandardBoard() {
@@ -69,17 +118,21 @@ public class Board {
 
     public static class Builder {
 
-        Map<Integer, Piece> boardConfig;
+        Piece[] boardConfig;
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
         Move transitionMove;
+        MoveGenerator moveGenerator;
+        long zobristKey;
+        boolean zobristKeySet;
 
         public Builder() {
-            this.boardConfig = new HashMap<>(33, 1.0f);
+            this.boardConfig = new Piece[128];
+            this.moveGenerator = PieceMoveGenerator.get();
         }
 
         public Builder setPiece(final Piece piece) {
-            this.boardConfig.put(piece.getPosition(), piece);
+            this.boardConfig[piece.getPosition()] = piece;
             return this;
         }
 
@@ -98,29 +151,46 @@ public class Board {
             return this;
         }
 
+        public Builder setMoveGenerator(final MoveGenerator moveGenerator) {
+            this.moveGenerator = moveGenerator;
+            return this;
+        }
+
+        public Builder setZobristKey(final long zobristKey) {
+            this.zobristKey = zobristKey;
+            this.zobristKeySet = true;
+            return this;
+        }
+
         public Board build() {
             return new Board(this);
         }
     }
 
     public Player currentPlayer() {
-        return currentPlayer;
+        return nextMoveMaker == Alliance.WHITE ? whitePlayer() : blackPlayer();
     }
 
     public List<Move> getAllLegalMoves() {
         if (allLegalMoves != null) {
             return  allLegalMoves;
         }
-        allLegalMoves = new ArrayList<>(this.whitePlayer.getLegalMoves());
-        allLegalMoves.addAll(this.blackPlayer.getLegalMoves());
-        return allLegalMoves;
+        final List<Move> legalMoves = new ArrayList<>(whitePlayer().getLegalMoves());
+        legalMoves.addAll(blackPlayer().getLegalMoves());
+        return allLegalMoves = Collections.unmodifiableList(legalMoves);
     }
 
     public Player blackPlayer() {
+        if (blackPlayer == null) {
+            blackPlayer = new BlackPlayer(this);
+        }
         return blackPlayer;
     }
 
     public Player whitePlayer() {
+        if (whitePlayer == null) {
+            whitePlayer = new WhitePlayer(this);
+        }
         return whitePlayer;
     }
 
@@ -188,7 +258,7 @@ public class Board {
         int position = 0;
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
-                Piece piece = boardConfig.get(position);
+                Piece piece = boardConfig[position];
                 builder.append(piece != null ? " " + piece + " " : " - ");
                 position++;
             }
@@ -3,7 +3,7 @@ package hu.berenyilajos.chess.board;
 //import hu.berenyilajos.chess.gui.Table;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import hu.berenyilajos.chess.pieces.King;
+import hu.berenyilajos.chess.pieces.Alliance;
 import hu.berenyilajos.chess.pieces.Piece;
 import hu.berenyilajos.chess.pieces.PieceType;
 
@@ -32,6 +32,14 @@ public enum BoardUtils {
 //    public final List<Boolean> SIXTH_ROW = initRow(40);
 //    public final List<Boolean> SEVENTH_ROW = initRow(48);
 //    public final List<Boolean> EIGHTH_ROW = initRow(56);
+    static final int[] KNIGHT_OFFSETS = { -33, -31, -18, -14, 14, 18, 31, 33 };
+    static final int[] KING_OFFSETS = { -17, -16, -15, -1, 1, 15, 16, 17 };
+    static final int[] DIAGONAL_OFFSETS = { -17, -15, 15, 17 };
+    static final int[] STRAIGHT_OFFSETS = { -16, -1, 1, 16 };
+    private static final PieceType[] LEAST_VALUABLE_FIRST = {
+            PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+    };
+
     public final List<String> ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
     public final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
 //    public static final int START_TILE_INDEX = 0;
@@ -118,24 +126,195 @@ public enum BoardUtils {
         return board.whitePlayer().isInCheck() || board.blackPlayer().isInCheck();
     }
 
-    public static boolean kingThreat(final Move move) {
-        final Board board = move.getBoard();
-        final MoveTransition transition = board.currentPlayer().makeMove(move);
-        return transition.getToBoard().currentPlayer().isInCheck();
+    /**
+     * Whether the move checks the enemy king, directly or by uncovering a slider of the moving side. Decided on the
+     * bitboards of the move's board, without playing the move.
+     */
+    public static boolean givesCheck(final Move move) {
+        final Bitboards bitboards = move.getBoard().getBitboards();
+        final Alliance alliance = move.getMovedPiece().getAlliance();
+        final long king = bitboards.getPieces(opponent(alliance), PieceType.KING);
+        final int destination = Bitboards.toSquare64(move.getDestinationCoordinate());
+        long moved = 1L << Bitboards.toSquare64(move.getCurrentCoordinate());
+        long occupied = bitboards.getOccupied() & ~moved;
+        if (move.isAttack()) {
+            occupied &= ~(1L << Bitboards.toSquare64(move.getAttackedPiece().getPosition()));
+        }
+        occupied |= 1L << destination;
+        if (move instanceof Move.CastleMove) {
+            final Move.CastleMove castleMove = (Move.CastleMove) move;
+            final long rookStart = 1L << Bitboards.toSquare64(castleMove.castleRookStart);
+            final int rookDestination = Bitboards.toSquare64(castleMove.castleRookDestination);
+            occupied = (occupied & ~rookStart) | (1L << rookDestination);
+            moved |= rookStart;
+            if ((Bitboards.rookAttacks(rookDestination, occupied) & king) != 0) {
+                return true;
+            }
+        }
+        final Piece promotionPiece = move.getPromotionPiece();
+        final PieceType pieceType = promotionPiece != null ? promotionPiece.getPieceType() : move.getMovedPiece().getPieceType();
+        if ((attacks(pieceType, alliance, destination, occupied) & king) != 0) {
+            return true;
+        }
+        final int kingSquare = Long.numberOfTrailingZeros(king);
+        final long queens = bitboards.getPieces(alliance, PieceType.QUEEN);
+        return (Bitboards.bishopAttacks(kingSquare, occupied) & (bitboards.getPieces(alliance, PieceType.BISHOP) | queens) & ~moved) != 0 ||
+                (Bitboards.rookAttacks(kingSquare, occupied) & (bitboards.getPieces(alliance, PieceType.ROOK) | queens) & ~moved) != 0;
     }
 
-    public static boolean isKingPawnTrap(final Board board,
-                                         final King king,
-                                         final int frontTile) {
-        final Piece piece = board.getPiece(frontTile);
-        return piece != null && piece.is(PieceType.PAWN) &&
-               piece.getAlliance() != king.getAlliance();
+    private static long attacks(final PieceType pieceType,
+                                final Alliance alliance,
+                                final int square,
+                                final long occupied) {
+        switch (pieceType) {
+            case PAWN:
+                return Bitboards.pawnAttacks(alliance, square);
+            case KNIGHT:
+                return Bitboards.knightAttacks(square);
+            case BISHOP:
+                return Bitboards.bishopAttacks(square, occupied);
+            case ROOK:
+                return Bitboards.rookAttacks(square, occupied);
+            case QUEEN:
+                return Bitboards.queenAttacks(square, occupied);
+            case KING:
+                return 0L;
+            default:
+                throw new RuntimeException("Unknown piece type: " + pieceType);
+        }
+    }
+
+    public static boolean isTileAttacked(final Board board,
+                                         final int tile,
+                                         final Alliance attacker) {
+        if (isAttackedBy(board, tile - attacker.getPositionByDirection(0x0F), attacker, PieceType.PAWN) ||
+                isAttackedBy(board, tile - attacker.getPositionByDirection(0x11), attacker, PieceType.PAWN)) {
+            return true;
+        }
+        for (final int offset : KNIGHT_OFFSETS) {
+            if (isAttackedBy(board, tile + offset, attacker, PieceType.KNIGHT)) {
+                return true;
+            }
+        }
+        for (final int offset : KING_OFFSETS) {
+            if (isAttackedBy(board, tile + offset, attacker, PieceType.KING)) {
+                return true;
+            }
+        }
+        return isSlidingAttack(board, tile, attacker, DIAGONAL_OFFSETS, PieceType.BISHOP) ||
+               isSlidingAttack(board, tile, attacker, STRAIGHT_OFFSETS, PieceType.ROOK);
+    }
+
+    private static boolean isAttackedBy(final Board board,
+                                        final int tile,
+                                        final Alliance attacker,
+                                        final PieceType pieceType) {
+        if (!Piece.isValidTileCoordinate(tile)) {
+            return false;
+        }
+        final Piece piece = board.getPiece(tile);
+        return piece != null && piece.getAlliance() == attacker && piece.is(pieceType);
+    }
+
+    private static boolean isSlidingAttack(final Board board,
+                                           final int tile,
+                                           final Alliance attacker,
+                                           final int[] offsets,
+                                           final PieceType slider) {
+        for (final int offset : offsets) {
+            int candidate = tile;
+            while (Piece.isValidTileCoordinate(candidate += offset)) {
+                final Piece piece = board.getPiece(candidate);
+                if (piece != null) {
+                    if (piece.getAlliance() == attacker && (piece.is(slider) || piece.is(PieceType.QUEEN))) {
+                        return true;
+                    }
+                    break;
+                }
+            }
+        }
+        return false;
     }
 
     public static int mvvlva(final Move move) {
         return move.isAttack() ? move.getAttackedPiece().getPieceValue() - move.getMovedPiece().getPieceValue() : 0;
     }
 
+    /**
+     * Static exchange evaluation: the material the moving side wins (or loses, if negative) when both sides keep
+     * recapturing on the destination square with their least valuable attacker and stop as soon as going on would
+     * not pay. Sliders behind a piece that has just captured (x-rays) join the exchange. A pawn recapturing on the
+     * last rank is counted as a pawn.
+     */
+    public static int see(final Move move) {
+        final Bitboards bitboards = move.getBoard().getBitboards();
+        final int destination = Bitboards.toSquare64(move.getDestinationCoordinate());
+        final int[] gain = new int[32];
+        long occupied = bitboards.getOccupied() & ~(1L << Bitboards.toSquare64(move.getCurrentCoordinate()));
+        if (move.isAttack()) {
+            gain[0] = move.getAttackedPiece().getPieceValue();
+            occupied &= ~(1L << Bitboards.toSquare64(move.getAttackedPiece().getPosition()));
+        }
+        int pieceOnDestination = move.getMovedPiece().getPieceValue();
+        final Piece promotionPiece = move.getPromotionPiece();
+        if (promotionPiece != null) {
+            gain[0] += promotionPiece.getPieceValue() - pieceOnDestination;
+            pieceOnDestination = promotionPiece.getPieceValue();
+        }
+        Alliance side = opponent(move.getMovedPiece().getAlliance());
+        int depth = 0;
+        while (true) {
+            final long attackers = attackersTo(bitboards, destination, occupied);
+            final long sideAttackers = attackers & bitboards.getOccupancy(side);
+            if (sideAttackers == 0) {
+                break;
+            }
+            PieceType attackerType = null;
+            long attacker = 0;
+            for (final PieceType pieceType : LEAST_VALUABLE_FIRST) {
+                final long candidates = sideAttackers & bitboards.getPieces(side, pieceType);
+                if (candidates != 0) {
+                    attackerType = pieceType;
+                    attacker = Long.lowestOneBit(candidates);
+                    break;
+                }
+            }
+            if (attackerType == PieceType.KING &&
+                    (attackersTo(bitboards, destination, occupied & ~attacker) & bitboards.getOccupancy(opponent(side))) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = pieceOnDestination - gain[depth - 1];
+            pieceOnDestination = attackerType.getValue();
+            occupied &= ~attacker;
+            side = opponent(side);
+        }
+        for (; depth > 0; depth--) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    private static long attackersTo(final Bitboards bitboards,
+                                    final int square,
+                                    final long occupied) {
+        final long queens = bitboards.getPieces(Alliance.WHITE, PieceType.QUEEN) | bitboards.getPieces(Alliance.BLACK, PieceType.QUEEN);
+        final long rooks = bitboards.getPieces(Alliance.WHITE, PieceType.ROOK) | bitboards.getPieces(Alliance.BLACK, PieceType.ROOK);
+        final long bishops = bitboards.getPieces(Alliance.WHITE, PieceType.BISHOP) | bitboards.getPieces(Alliance.BLACK, PieceType.BISHOP);
+        return ((Bitboards.pawnAttacks(Alliance.BLACK, square) & bitboards.getPieces(Alliance.WHITE, PieceType.PAWN)) |
+                (Bitboards.pawnAttacks(Alliance.WHITE, square) & bitboards.getPieces(Alliance.BLACK, PieceType.PAWN)) |
+                (Bitboards.knightAttacks(square) &
+                        (bitboards.getPieces(Alliance.WHITE, PieceType.KNIGHT) | bitboards.getPieces(Alliance.BLACK, PieceType.KNIGHT))) |
+                (Bitboards.kingAttacks(square) &
+                        (bitboards.getPieces(Alliance.WHITE, PieceType.KING) | bitboards.getPieces(Alliance.BLACK, PieceType.KING))) |
+                (Bitboards.rookAttacks(square, occupied) & (rooks | queens)) |
+                (Bitboards.bishopAttacks(square, occupied) & (bishops | queens))) & occupied;
+    }
+
+    private static Alliance opponent(final Alliance alliance) {
+        return alliance == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+    }
+
     public static List<Move> lastNMoves(final Board board, int N) {
         final List<Move> moveHistory = new ArrayList<>();
         Move currentMove = board.getTransitionMove();
@@ -46,6 +46,7 @@ public abstract class Move {
             builder.setPiece(piece);
         }
         builder.setMoveMaker(this.board.currentPlayer().getAlliance());
+        builder.setMoveGenerator(this.board.getMoveGenerator());
         return builder.build();
     }
 
@@ -71,6 +72,10 @@ public abstract class Move {
 
     public abstract Piece getAttackedPiece();
 
+    public Piece getPromotionPiece() {
+        return null;
+    }
+
     public abstract Board execute();
 
     protected String disambiguationFile() {
@@ -83,6 +88,12 @@ public abstract class Move {
         return "";
     }
 
+    protected long nextZobristKey(final Piece movedPieceResult) {
+        final long key = this.board.getZobristKey() ^ Zobrist.BLACK_TO_MOVE ^ Zobrist.enPassant(this.board) ^
+                Zobrist.piece(this.movedPiece) ^ Zobrist.piece(movedPieceResult);
+        return isAttack() ? key ^ Zobrist.piece(getAttackedPiece()) : key;
+    }
+
     protected Board baseExecute() {
         final Board.Builder builder = new Board.Builder();
         for (Piece piece : this.board.currentPlayer().getActivePieces()) {
@@ -95,8 +106,11 @@ public abstract class Move {
         }
 //        this.board.currentPlayer().getActivePieces().stream().filter(piece -> !this.movedPiece.equalsForRepetition(piece)).forEach(builder::setPiece);
 //        this.board.currentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
-        builder.setPiece(this.movedPiece.movePiece(this));
+        final Piece movedPieceResult = this.movedPiece.movePiece(this);
+        builder.setPiece(movedPieceResult);
+        builder.setZobristKey(nextZobristKey(movedPieceResult));
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+        builder.setMoveGenerator(this.board.getMoveGenerator());
         builder.setMoveTransition(this);
         return builder.build();
     }
@@ -196,6 +210,11 @@ public abstract class Move {
             this.promotionPiece = promotionPiece;
         }
 
+        @Override
+        public Piece getPromotionPiece() {
+            return this.promotionPiece;
+        }
+
         @Override
         public Board execute() {
             final Board pawnMovedBoard = this.decoratedMove.execute();
@@ -210,8 +229,12 @@ public abstract class Move {
             }
 //            pawnMovedBoard.currentPlayer().getActivePieces().stream().filter(piece -> !this.promotedPawn.equalsForRepetition(piece)).forEach(builder::setPiece);
 //            pawnMovedBoard.currentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
-            builder.setPiece(this.promotionPiece.movePiece(this));
+            final Piece promotedPiece = this.promotionPiece.movePiece(this);
+            builder.setPiece(promotedPiece);
+            builder.setZobristKey(pawnMovedBoard.getZobristKey() ^
+                    Zobrist.piece(pawnMovedBoard.getPiece(this.destinationCoordinate)) ^ Zobrist.piece(promotedPiece));
             builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
+            builder.setMoveGenerator(this.board.getMoveGenerator());
             builder.setMoveTransition(this);
             return builder.build();
         }
@@ -249,6 +272,11 @@ public abstract class Move {
             this.promotionPiece = promotionPiece;
         }
 
+        @Override
+        public Piece getPromotionPiece() {
+            return this.promotionPiece;
+        }
+
         @Override
         public Board execute() {
             final Board pawnMovedBoard = this.decoratedMove.execute();
@@ -263,8 +291,12 @@ public abstract class Move {
             }
 //            pawnMovedBoard.currentPlayer().getActivePieces().stream().filter(piece -> !this.promotedPawn.equalsForRepetition(piece)).forEach(builder::setPiece);
 //            pawnMovedBoard.currentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
-            builder.setPiece(this.promotionPiece.movePiece(this));
+            final Piece promotedPiece = this.promotionPiece.movePiece(this);
+            builder.setPiece(promotedPiece);
+            builder.setZobristKey(pawnMovedBoard.getZobristKey() ^
+                    Zobrist.piece(pawnMovedBoard.getPiece(this.destinationCoordinate)) ^ Zobrist.piece(promotedPiece));
             builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
+            builder.setMoveGenerator(this.board.getMoveGenerator());
             builder.setMoveTransition(this);
             return builder.build();
         }
@@ -297,8 +329,11 @@ public abstract class Move {
             }
 //            this.board.currentPlayer().getActivePieces().stream().filter(piece -> !this.movedPiece.equalsForRepetition(piece)).forEach(builder::setPiece);
 //            this.board.currentPlayer().getOpponent().getActivePieces().stream().filter(piece -> !piece.equalsForRepetition(this.getAttackedPiece())).forEach(builder::setPiece);
-            builder.setPiece(this.movedPiece.movePiece(this));
+            final Piece movedPawn = this.movedPiece.movePiece(this);
+            builder.setPiece(movedPawn);
+            builder.setZobristKey(nextZobristKey(movedPawn));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveGenerator(this.board.getMoveGenerator());
             builder.setMoveTransition(this);
             return builder.build();
         }
@@ -311,6 +346,7 @@ public abstract class Move {
             }
             builder.setEnPassantPawn((Pawn)this.getAttackedPiece());
             builder.setMoveMaker(this.board.currentPlayer().getAlliance());
+            builder.setMoveGenerator(this.board.getMoveGenerator());
             return builder.build();
         }
     }
@@ -336,8 +372,10 @@ public abstract class Move {
 //            this.board.currentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
             final Pawn movedPawn = (Pawn)this.movedPiece.movePiece(this);
             builder.setPiece(movedPawn);
+            builder.setZobristKey(nextZobristKey(movedPawn) ^ Zobrist.enPassant(this.board, movedPawn));
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveGenerator(this.board.getMoveGenerator());
             builder.setMoveTransition(this);
             return builder.build();
         }
@@ -388,10 +426,14 @@ public abstract class Move {
                     builder.setPiece(piece);
                 }
             }
-            builder.setPiece(this.movedPiece.movePiece(this));
+            final Piece castledKing = this.movedPiece.movePiece(this);
+            builder.setPiece(castledKing);
             //calling movePiece here doesn't work, we need to explicitly create a new Rook
-            builder.setPiece(new Rook(this.castleRook.getAlliance(), this.castleRookDestination, false));
+            final Rook castledRook = new Rook(this.castleRook.getAlliance(), this.castleRookDestination, false);
+            builder.setPiece(castledRook);
+            builder.setZobristKey(nextZobristKey(castledKing) ^ Zobrist.piece(this.castleRook) ^ Zobrist.piece(castledRook));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveGenerator(this.board.getMoveGenerator());
             builder.setMoveTransition(this);
             return builder.build();
         }
@@ -419,14 +461,14 @@ public abstract class Move {
 
         @Override
         public String toString() {
-            return "O-O-0";
+            return "O-O-O";
         }
     }
 
     private static class NullMove extends Move {
 
-        private NullMove() {
-            super(null, -1, null);
+        private NullMove(final Board board) {
+            super(board, -1, null);
         }
 
         @Override
@@ -456,7 +498,17 @@ public abstract class Move {
 
         @Override
         public Board execute() {
-            throw new RuntimeException("cannot execute null move!");
+            if (this.board == null) {
+                throw new RuntimeException("cannot execute null move!");
+            }
+            final Board.Builder builder = new Board.Builder();
+            for (final Piece piece : this.board.getAllPieces()) {
+                builder.setPiece(piece);
+            }
+            builder.setZobristKey(this.board.getZobristKey() ^ Zobrist.BLACK_TO_MOVE ^ Zobrist.enPassant(this.board));
+            builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+            builder.setMoveGenerator(this.board.getMoveGenerator());
+            return builder.build();
         }
 
         @Override
@@ -492,7 +544,7 @@ public abstract class Move {
 
     public static class MoveFactory {
 
-        private static final Move NULL_MOVE = new NullMove();
+        private static final Move NULL_MOVE = new NullMove(null);
 
         private MoveFactory() {
             throw new RuntimeException("Not instantiatable!");
@@ -502,6 +554,14 @@ public abstract class Move {
             return NULL_MOVE;
         }
 
+        /**
+         * A pass: the opponent moves next on the same position and the en passant pawn is cleared. The board it leads
+         * to has no transition move, so the moves played before the pass are not reachable from it.
+         */
+        public static Move createNullMove(final Board board) {
+            return new NullMove(board);
+        }
+
         public static Move createMove(final Board board,
                                       final int currentCoordinate,
                                       final int destinationCoordinate) {
@@ -0,0 +1,17 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pieces.Piece;
+
+import java.util.List;
+
+public interface MoveGenerator {
+
+    List<Move> calculateLegalMoves(Board board, List<Piece> pieces);
+
+    /**
+     * Captures, en passant captures and queen promotions of the given pieces, in the order
+     * {@link #calculateLegalMoves} would emit them.
+     */
+    List<Move> calculateAttackMoves(Board board, List<Piece> pieces);
+
+}
@@ -0,0 +1,73 @@
+package hu.berenyilajos.chess.board;
+
+/**
+ * Reusable list of {@link PackedMove} ints for {@link SearchBoard} move generation. A tree walk keeps one instance per
+ * ply, as {@code Perft} does, and clears it instead of allocating a list per node.
+ */
+public final class MoveList {
+
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[MAX_MOVES];
+    }
+
+    public static MoveList[] createPerPly(final int maxPly) {
+        final MoveList[] lists = new MoveList[maxPly];
+        for (int ply = 0; ply < maxPly; ply++) {
+            lists[ply] = new MoveList();
+        }
+        return lists;
+    }
+
+    public void add(final int move) {
+        this.moves[this.size++] = move;
+    }
+
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    public void set(final int index, final int move) {
+        this.moves[index] = move;
+    }
+
+    public void swap(final int i, final int j) {
+        final int move = this.moves[i];
+        this.moves[i] = this.moves[j];
+        this.moves[j] = move;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public void truncate(final int size) {
+        this.size = size;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public boolean contains(final int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < this.size; i++) {
+            builder.append(i == 0 ? "" : ", ").append(PackedMove.toString(this.moves[i]));
+        }
+        return builder.append("]").toString();
+    }
+}
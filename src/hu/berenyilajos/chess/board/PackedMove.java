@@ -0,0 +1,139 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pieces.Alliance;
+import hu.berenyilajos.chess.pieces.Piece;
+
+/**
+ * A move packed into an {@code int}: from square (bits 0-6), to square (7-13), flag (14-17), moved piece (18-21)
+ * and captured piece (22-25). Squares are 0x88 coordinates and pieces are {@link SearchBoard} piece codes.
+ * Zero is never a valid move and is used as "no move".
+ * <p>
+ * {@link SearchBoard} generates and plays packed moves. The engine still searches with {@link Move} objects and uses
+ * packed moves only as the compact form of a move in the transposition table and the killer and countermove
+ * tables; {@link #fromMove} and {@link #toMove} convert between the two.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int PAWN_JUMP = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+
+    private PackedMove() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    public static int create(final int from,
+                             final int to,
+                             final int flag,
+                             final int movedPiece,
+                             final int capturedPiece) {
+        return from | (to << 7) | (flag << 14) | (movedPiece << 18) | (capturedPiece << 22);
+    }
+
+    public static int from(final int move) {
+        return move & 0x7F;
+    }
+
+    public static int to(final int move) {
+        return (move >>> 7) & 0x7F;
+    }
+
+    public static int flag(final int move) {
+        return (move >>> 14) & 0xF;
+    }
+
+    public static int movedPiece(final int move) {
+        return (move >>> 18) & 0xF;
+    }
+
+    public static int capturedPiece(final int move) {
+        return (move >>> 22) & 0xF;
+    }
+
+    public static boolean isCapture(final int move) {
+        return (flag(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (flag(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(final int move) {
+        return flag(move) == KING_CASTLE || flag(move) == QUEEN_CASTLE;
+    }
+
+    public static int promotionType(final int move) {
+        return SearchBoard.KNIGHT + (flag(move) & 3);
+    }
+
+    public static int promotionFlag(final int promotionType) {
+        return PROMOTION | (promotionType - SearchBoard.KNIGHT);
+    }
+
+    public static int fromMove(final Move move) {
+        if (move == Move.MoveFactory.getNullMove()) {
+            return NONE;
+        }
+        final int from = move.getCurrentCoordinate();
+        final int to = move.getDestinationCoordinate();
+        final int movedPiece = pieceCode(move.getMovedPiece());
+        final int capturedPiece = move.isAttack() ? pieceCode(move.getAttackedPiece()) : SearchBoard.EMPTY;
+        final int flag;
+        if (move instanceof Move.KingSideCastleMove) {
+            flag = KING_CASTLE;
+        } else if (move instanceof Move.QueenSideCastleMove) {
+            flag = QUEEN_CASTLE;
+        } else if (move instanceof Move.PawnEnPassantMove) {
+            flag = EN_PASSANT;
+        } else if (move instanceof Move.PawnJumpMove) {
+            flag = PAWN_JUMP;
+        } else if (move instanceof Move.PawnPromotionMove) {
+            flag = promotionFlag(pieceCode(((Move.PawnPromotionMove) move).promotionPiece) & SearchBoard.TYPE_MASK);
+        } else if (move instanceof Move.PawnPromotionAttackMove) {
+            flag = CAPTURE | promotionFlag(pieceCode(((Move.PawnPromotionAttackMove) move).promotionPiece) & SearchBoard.TYPE_MASK);
+        } else {
+            flag = move.isAttack() ? CAPTURE : QUIET;
+        }
+        return create(from, to, flag, movedPiece, capturedPiece);
+    }
+
+    public static Move toMove(final Board board,
+                              final int move) {
+        for (final Move legalMove : board.currentPlayer().getLegalMoves()) {
+            if (legalMove.getCurrentCoordinate() == from(move) && legalMove.getDestinationCoordinate() == to(move) &&
+                    (!isPromotion(move) || fromMove(legalMove) == move)) {
+                return legalMove;
+            }
+        }
+        return Move.MoveFactory.getNullMove();
+    }
+
+    static int pieceCode(final Piece piece) {
+        final int colour = piece.getAlliance() == Alliance.WHITE ? 0 : SearchBoard.BLACK;
+        switch (piece.getPieceType()) {
+            case PAWN: return SearchBoard.PAWN | colour;
+            case KNIGHT: return SearchBoard.KNIGHT | colour;
+            case BISHOP: return SearchBoard.BISHOP | colour;
+            case ROOK: return SearchBoard.ROOK | colour;
+            case QUEEN: return SearchBoard.QUEEN | colour;
+            case KING: return SearchBoard.KING | colour;
+            default: throw new RuntimeException("Invalid piece " + piece);
+        }
+    }
+
+    public static String toString(final int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        final String promotion = isPromotion(move) ? "nbrq".substring(promotionType(move) - SearchBoard.KNIGHT,
+                promotionType(move) - SearchBoard.KNIGHT + 1) : "";
+        return BoardUtils.INSTANCE.getPositionAtCoordinate(from(move)) +
+               BoardUtils.INSTANCE.getPositionAtCoordinate(to(move)) + promotion;
+    }
+}
@@ -0,0 +1,31 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pieces.Piece;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class PieceMoveGenerator implements MoveGenerator {
+
+    private static final PieceMoveGenerator INSTANCE = new PieceMoveGenerator();
+
+    private PieceMoveGenerator() {
+    }
+
+    public static PieceMoveGenerator get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public List<Move> calculateLegalMoves(final Board board,
+                                          final List<Piece> pieces) {
+        return pieces.stream().flatMap(piece -> piece.calculateLegalMoves(board).stream()).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Move> calculateAttackMoves(final Board board,
+                                           final List<Piece> pieces) {
+        return pieces.stream().flatMap(piece -> piece.calculateAttackMoves(board).stream()).collect(Collectors.toList());
+    }
+
+}
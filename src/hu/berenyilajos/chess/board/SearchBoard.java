@@ -0,0 +1,467 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pieces.*;
+
+import static hu.berenyilajos.chess.board.PackedMove.*;
+
+/**
+ * Mutable 0x88 board of int piece codes that plays {@link PackedMove}s in place: {@link #make(int)} and
+ * {@link #unmake(int)} keep an undo stack, so walking a tree allocates no board per node. {@link #fromBoard} and
+ * {@link #toBoard} convert to and from the immutable {@link Board}. The engine still searches on {@link Board};
+ * {@code PerftRunner --searchboard} checks this move generator against the reference perft counts.
+ */
+public final class SearchBoard {
+
+    public static final int EMPTY = 0;
+    public static final int PAWN = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+    public static final int TYPE_MASK = 7;
+    public static final int BLACK = 8;
+
+    private static final int MAX_PLY = 512;
+
+    private static final int WHITE_KING_SIDE = 1;
+    private static final int WHITE_QUEEN_SIDE = 2;
+    private static final int BLACK_KING_SIDE = 4;
+    private static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final int[] KNIGHT_OFFSETS = { -33, -31, -18, -14, 14, 18, 31, 33 };
+    private static final int[] KING_OFFSETS = { -17, -16, -15, -1, 1, 15, 16, 17 };
+    private static final int[] BISHOP_OFFSETS = { -17, -15, 15, 17 };
+    private static final int[] ROOK_OFFSETS = { -16, -1, 1, 16 };
+    private static final int[] CASTLING_MASK = createCastlingMask();
+
+    private final int[] squares = new int[128];
+    private final int[] kingSquares = new int[2];
+    private final boolean[] castled = new boolean[2];
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassantSquare = -1;
+    private int ply;
+
+    private final int[] castlingStack = new int[MAX_PLY];
+    private final int[] enPassantStack = new int[MAX_PLY];
+
+    private SearchBoard() {
+    }
+
+    public static SearchBoard fromBoard(final Board board) {
+        final SearchBoard searchBoard = new SearchBoard();
+        for (final Piece piece : board.getAllPieces()) {
+            final int side = piece.getAlliance() == Alliance.WHITE ? 0 : 1;
+            searchBoard.squares[piece.getPosition()] = PackedMove.pieceCode(piece);
+            if (piece.is(PieceType.KING)) {
+                searchBoard.kingSquares[side] = piece.getPosition();
+                searchBoard.castled[side] = ((King) piece).isCastled();
+            }
+        }
+        searchBoard.sideToMove = board.currentPlayer().isWhite() ? 0 : 1;
+        searchBoard.castlingRights =
+                castleRight(board, Alliance.WHITE, 0x74, 0x77, true, WHITE_KING_SIDE) |
+                castleRight(board, Alliance.WHITE, 0x74, 0x70, false, WHITE_QUEEN_SIDE) |
+                castleRight(board, Alliance.BLACK, 0x04, 0x07, true, BLACK_KING_SIDE) |
+                castleRight(board, Alliance.BLACK, 0x04, 0x00, false, BLACK_QUEEN_SIDE);
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn != null) {
+            searchBoard.enPassantSquare = enPassantPawn.getPosition() +
+                    (enPassantPawn.getAlliance() == Alliance.WHITE ? 16 : -16);
+        }
+        return searchBoard;
+    }
+
+    public Board toBoard() {
+        final Board.Builder builder = new Board.Builder();
+        final int enPassantPawnSquare = this.enPassantSquare == -1 ? -1 :
+                this.enPassantSquare + (this.sideToMove == 0 ? 16 : -16);
+        for (int square = 0; square < 128; square = (square + 9) & ~8) {
+            final int piece = this.squares[square];
+            if (piece == EMPTY) {
+                continue;
+            }
+            final Alliance alliance = (piece & BLACK) == 0 ? Alliance.WHITE : Alliance.BLACK;
+            switch (piece & TYPE_MASK) {
+                case PAWN:
+                    final Pawn pawn = new Pawn(alliance, square, alliance.isSecondRow(square));
+                    builder.setPiece(pawn);
+                    if (square == enPassantPawnSquare) {
+                        builder.setEnPassantPawn(pawn);
+                    }
+                    break;
+                case KNIGHT:
+                    builder.setPiece(new Knight(alliance, square, false));
+                    break;
+                case BISHOP:
+                    builder.setPiece(new Bishop(alliance, square, false));
+                    break;
+                case ROOK:
+                    builder.setPiece(new Rook(alliance, square, isCastleRookSquare(square)));
+                    break;
+                case QUEEN:
+                    builder.setPiece(new Queen(alliance, square, false));
+                    break;
+                case KING:
+                    final int side = alliance == Alliance.WHITE ? 0 : 1;
+                    final boolean kingSide = (this.castlingRights & (side == 0 ? WHITE_KING_SIDE : BLACK_KING_SIDE)) != 0;
+                    final boolean queenSide = (this.castlingRights & (side == 0 ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE)) != 0;
+                    builder.setPiece(new King(alliance, square, kingSide || queenSide, this.castled[side], kingSide, queenSide));
+                    break;
+                default:
+                    throw new RuntimeException("Invalid piece code " + piece);
+            }
+        }
+        builder.setMoveMaker(this.sideToMove == 0 ? Alliance.WHITE : Alliance.BLACK);
+        return builder.build();
+    }
+
+    public int getPieceCode(final int square) {
+        return this.squares[square];
+    }
+
+    public Alliance getMoveMaker() {
+        return this.sideToMove == 0 ? Alliance.WHITE : Alliance.BLACK;
+    }
+
+    public int getPly() {
+        return this.ply;
+    }
+
+    public boolean isInCheck() {
+        return isSquareAttacked(this.kingSquares[this.sideToMove], (this.sideToMove ^ 1) << 3);
+    }
+
+    public boolean isSquareAttacked(final int square, final int attackerColour) {
+        final int pawnOffset = attackerColour == 0 ? 16 : -16;
+        if (isPieceAt(square + pawnOffset - 1, PAWN | attackerColour) ||
+                isPieceAt(square + pawnOffset + 1, PAWN | attackerColour)) {
+            return true;
+        }
+        for (final int offset : KNIGHT_OFFSETS) {
+            if (isPieceAt(square + offset, KNIGHT | attackerColour)) {
+                return true;
+            }
+        }
+        for (final int offset : KING_OFFSETS) {
+            if (isPieceAt(square + offset, KING | attackerColour)) {
+                return true;
+            }
+        }
+        return isSlidingAttack(square, BISHOP_OFFSETS, BISHOP | attackerColour, QUEEN | attackerColour) ||
+               isSlidingAttack(square, ROOK_OFFSETS, ROOK | attackerColour, QUEEN | attackerColour);
+    }
+
+    private boolean isPieceAt(final int square, final int piece) {
+        return (square & 0x88) == 0 && this.squares[square] == piece;
+    }
+
+    private boolean isSlidingAttack(final int square,
+                                    final int[] offsets,
+                                    final int slider,
+                                    final int queen) {
+        for (final int offset : offsets) {
+            int candidate = square + offset;
+            while ((candidate & 0x88) == 0) {
+                final int piece = this.squares[candidate];
+                if (piece != EMPTY) {
+                    if (piece == slider || piece == queen) {
+                        return true;
+                    }
+                    break;
+                }
+                candidate += offset;
+            }
+        }
+        return false;
+    }
+
+    public void generateLegalMoves(final MoveList moves) {
+        generateMoves(moves);
+        int count = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            if (make(move)) {
+                moves.set(count++, move);
+            }
+            unmake(move);
+        }
+        moves.truncate(count);
+    }
+
+    public void generateMoves(final MoveList moves) {
+        moves.clear();
+        final int colour = this.sideToMove << 3;
+        for (int square = 0; square < 128; square = (square + 9) & ~8) {
+            final int piece = this.squares[square];
+            if (piece == EMPTY || (piece & BLACK) != colour) {
+                continue;
+            }
+            switch (piece & TYPE_MASK) {
+                case PAWN:
+                    generatePawnMoves(square, piece, moves);
+                    break;
+                case KNIGHT:
+                    generateStepMoves(square, piece, KNIGHT_OFFSETS, moves);
+                    break;
+                case BISHOP:
+                    generateSlidingMoves(square, piece, BISHOP_OFFSETS, moves);
+                    break;
+                case ROOK:
+                    generateSlidingMoves(square, piece, ROOK_OFFSETS, moves);
+                    break;
+                case QUEEN:
+                    generateSlidingMoves(square, piece, BISHOP_OFFSETS, moves);
+                    generateSlidingMoves(square, piece, ROOK_OFFSETS, moves);
+                    break;
+                case KING:
+                    generateStepMoves(square, piece, KING_OFFSETS, moves);
+                    generateCastleMoves(piece, moves);
+                    break;
+            }
+        }
+    }
+
+    private void generatePawnMoves(final int from,
+                                   final int piece,
+                                   final MoveList moves) {
+        final int direction = this.sideToMove == 0 ? -16 : 16;
+        final int to = from + direction;
+        if ((to & 0x88) == 0 && this.squares[to] == EMPTY) {
+            if (isPromotionSquare(to)) {
+                addPromotions(from, to, piece, EMPTY, moves);
+            } else {
+                moves.add(create(from, to, QUIET, piece, EMPTY));
+                final int jump = to + direction;
+                if (isPawnStartSquare(from) && this.squares[jump] == EMPTY) {
+                    moves.add(create(from, jump, PAWN_JUMP, piece, EMPTY));
+                }
+            }
+        }
+        for (int side = -1; side <= 1; side += 2) {
+            final int target = to + side;
+            if ((target & 0x88) != 0) {
+                continue;
+            }
+            final int attacked = this.squares[target];
+            if (attacked != EMPTY && (attacked & BLACK) != (this.sideToMove << 3)) {
+                if (isPromotionSquare(target)) {
+                    addPromotions(from, target, piece, attacked, moves);
+                } else {
+                    moves.add(create(from, target, CAPTURE, piece, attacked));
+                }
+            } else if (target == this.enPassantSquare) {
+                moves.add(create(from, target, EN_PASSANT, piece, PAWN | ((this.sideToMove ^ 1) << 3)));
+            }
+        }
+    }
+
+    private static void addPromotions(final int from,
+                                      final int to,
+                                      final int piece,
+                                      final int captured,
+                                      final MoveList moves) {
+        final int capture = captured == EMPTY ? 0 : CAPTURE;
+        for (int promotion = QUEEN; promotion >= KNIGHT; promotion--) {
+            moves.add(create(from, to, promotionFlag(promotion) | capture, piece, captured));
+        }
+    }
+
+    private void generateStepMoves(final int from,
+                                   final int piece,
+                                   final int[] offsets,
+                                   final MoveList moves) {
+        for (final int offset : offsets) {
+            final int to = from + offset;
+            if ((to & 0x88) == 0) {
+                final int target = this.squares[to];
+                if (target == EMPTY) {
+                    moves.add(create(from, to, QUIET, piece, EMPTY));
+                } else if ((target & BLACK) != (this.sideToMove << 3)) {
+                    moves.add(create(from, to, CAPTURE, piece, target));
+                }
+            }
+        }
+    }
+
+    private void generateSlidingMoves(final int from,
+                                      final int piece,
+                                      final int[] offsets,
+                                      final MoveList moves) {
+        for (final int offset : offsets) {
+            int to = from + offset;
+            while ((to & 0x88) == 0) {
+                final int target = this.squares[to];
+                if (target == EMPTY) {
+                    moves.add(create(from, to, QUIET, piece, EMPTY));
+                } else {
+                    if ((target & BLACK) != (this.sideToMove << 3)) {
+                        moves.add(create(from, to, CAPTURE, piece, target));
+                    }
+                    break;
+                }
+                to += offset;
+            }
+        }
+    }
+
+    private void generateCastleMoves(final int king,
+                                     final MoveList moves) {
+        final int base = this.sideToMove == 0 ? 0x70 : 0x00;
+        final int kingSide = this.sideToMove == 0 ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+        final int queenSide = this.sideToMove == 0 ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+        final int opponent = (this.sideToMove ^ 1) << 3;
+        if ((this.castlingRights & (kingSide | queenSide)) == 0 || isSquareAttacked(base + 4, opponent)) {
+            return;
+        }
+        if ((this.castlingRights & kingSide) != 0 &&
+                this.squares[base + 5] == EMPTY && this.squares[base + 6] == EMPTY &&
+                !isSquareAttacked(base + 5, opponent) && !isSquareAttacked(base + 6, opponent)) {
+            moves.add(create(base + 4, base + 6, KING_CASTLE, king, EMPTY));
+        }
+        if ((this.castlingRights & queenSide) != 0 &&
+                this.squares[base + 3] == EMPTY && this.squares[base + 2] == EMPTY && this.squares[base + 1] == EMPTY &&
+                !isSquareAttacked(base + 3, opponent) && !isSquareAttacked(base + 2, opponent)) {
+            moves.add(create(base + 4, base + 2, QUEEN_CASTLE, king, EMPTY));
+        }
+    }
+
+    public boolean make(final int move) {
+        final int from = from(move);
+        final int to = to(move);
+        final int flag = flag(move);
+        final int piece = this.squares[from];
+        final int side = this.sideToMove;
+
+        this.castlingStack[this.ply] = this.castlingRights;
+        this.enPassantStack[this.ply] = this.enPassantSquare;
+
+        this.squares[to] = piece;
+        this.squares[from] = EMPTY;
+        this.enPassantSquare = -1;
+        if (flag == EN_PASSANT) {
+            this.squares[to + (side == 0 ? 16 : -16)] = EMPTY;
+        } else if (flag == PAWN_JUMP) {
+            this.enPassantSquare = (from + to) >> 1;
+        } else if (flag == KING_CASTLE) {
+            this.squares[to - 1] = this.squares[to + 1];
+            this.squares[to + 1] = EMPTY;
+            this.castled[side] = true;
+        } else if (flag == QUEEN_CASTLE) {
+            this.squares[to + 1] = this.squares[to - 2];
+            this.squares[to - 2] = EMPTY;
+            this.castled[side] = true;
+        } else if ((flag & PROMOTION) != 0) {
+            this.squares[to] = promotionType(move) | (side << 3);
+        }
+        if ((piece & TYPE_MASK) == KING) {
+            this.kingSquares[side] = to;
+        }
+        this.castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        this.sideToMove ^= 1;
+        this.ply++;
+        return !isSquareAttacked(this.kingSquares[side], this.sideToMove << 3);
+    }
+
+    public void unmake(final int move) {
+        this.ply--;
+        this.sideToMove ^= 1;
+        final int from = from(move);
+        final int to = to(move);
+        final int flag = flag(move);
+        final int side = this.sideToMove;
+        final int piece = movedPiece(move);
+
+        this.squares[from] = piece;
+        if (flag == EN_PASSANT) {
+            this.squares[to] = EMPTY;
+            this.squares[to + (side == 0 ? 16 : -16)] = capturedPiece(move);
+        } else {
+            this.squares[to] = capturedPiece(move);
+        }
+        if (flag == KING_CASTLE) {
+            this.squares[to + 1] = this.squares[to - 1];
+            this.squares[to - 1] = EMPTY;
+            this.castled[side] = false;
+        } else if (flag == QUEEN_CASTLE) {
+            this.squares[to - 2] = this.squares[to + 1];
+            this.squares[to + 1] = EMPTY;
+            this.castled[side] = false;
+        }
+        if ((piece & TYPE_MASK) == KING) {
+            this.kingSquares[side] = from;
+        }
+        this.castlingRights = this.castlingStack[this.ply];
+        this.enPassantSquare = this.enPassantStack[this.ply];
+    }
+
+    private boolean isPromotionSquare(final int square) {
+        return this.sideToMove == 0 ? (square & 0xF0) == 0 : (square & 0xF0) == 0x70;
+    }
+
+    private boolean isPawnStartSquare(final int square) {
+        return this.sideToMove == 0 ? (square & 0xF0) == 0x60 : (square & 0xF0) == 0x10;
+    }
+
+    private boolean isCastleRookSquare(final int square) {
+        switch (square) {
+            case 0x77: return (this.castlingRights & WHITE_KING_SIDE) != 0;
+            case 0x70: return (this.castlingRights & WHITE_QUEEN_SIDE) != 0;
+            case 0x07: return (this.castlingRights & BLACK_KING_SIDE) != 0;
+            case 0x00: return (this.castlingRights & BLACK_QUEEN_SIDE) != 0;
+            default: return false;
+        }
+    }
+
+    private static int castleRight(final Board board,
+                                   final Alliance alliance,
+                                   final int kingSquare,
+                                   final int rookSquare,
+                                   final boolean kingSide,
+                                   final int right) {
+        final Piece king = board.getPiece(kingSquare);
+        final Piece rook = board.getPiece(rookSquare);
+        if (king == null || !king.is(PieceType.KING) || king.getAlliance() != alliance || !king.isFirstMove() ||
+                rook == null || !rook.is(PieceType.ROOK) || rook.getAlliance() != alliance || !rook.isFirstMove()) {
+            return 0;
+        }
+        final King castleKing = (King) king;
+        if (castleKing.isCastled()) {
+            return 0;
+        }
+        return (kingSide ? castleKing.isKingSideCastleCapable() : castleKing.isQueenSideCastleCapable()) ? right : 0;
+    }
+
+    private static int[] createCastlingMask() {
+        final int[] mask = new int[128];
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = 0xF;
+        }
+        mask[0x74] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        mask[0x77] &= ~WHITE_KING_SIDE;
+        mask[0x70] &= ~WHITE_QUEEN_SIDE;
+        mask[0x04] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        mask[0x07] &= ~BLACK_KING_SIDE;
+        mask[0x00] &= ~BLACK_QUEEN_SIDE;
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int square = 0; square < 128; square = (square + 9) & ~8) {
+            final int piece = this.squares[square];
+            builder.append(piece == EMPTY ? " - " : " " + pieceName(piece) + " ");
+            if ((square & 7) == 7) {
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String pieceName(final int piece) {
+        final String name = " PNBRQK".substring(piece & TYPE_MASK, (piece & TYPE_MASK) + 1);
+        return (piece & BLACK) == 0 ? name : name.toLowerCase();
+    }
+}
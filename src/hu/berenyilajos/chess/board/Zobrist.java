@@ -0,0 +1,93 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pieces.Alliance;
+import hu.berenyilajos.chess.pieces.King;
+import hu.berenyilajos.chess.pieces.Pawn;
+import hu.berenyilajos.chess.pieces.Piece;
+import hu.berenyilajos.chess.pieces.PieceType;
+
+import java.util.Random;
+
+/**
+ * Zobrist keys of {@link Board} positions. Castling rights are folded into the key of the king that holds them,
+ * and the en passant pawn only counts when an enemy pawn stands next to it, so positions that only differ in an
+ * unusable en passant chance share a key.
+ */
+public final class Zobrist {
+
+    public static final long BLACK_TO_MOVE;
+
+    private static final long[][][] PIECES = new long[2][PieceType.values().length][128];
+    private static final long[] CASTLING = new long[4];
+    private static final long[] EN_PASSANT = new long[8];
+
+    static {
+        final Random random = new Random(0x88L);
+        for (final long[][] alliance : PIECES) {
+            for (final long[] pieceType : alliance) {
+                for (int square = 0; square < 128; square = (square + 9) & ~8) {
+                    pieceType[square] = random.nextLong();
+                }
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    public static long calculateKey(final Board board) {
+        return calculateKey(board, board.currentPlayer().getAlliance());
+    }
+
+    static long calculateKey(final Board board,
+                             final Alliance moveMaker) {
+        long key = moveMaker == Alliance.BLACK ? BLACK_TO_MOVE : 0L;
+        for (final Piece piece : board.getAllPieces()) {
+            key ^= piece(piece);
+        }
+        return key ^ enPassant(board);
+    }
+
+    public static long piece(final Piece piece) {
+        final int alliance = piece.getAlliance().ordinal();
+        final long key = PIECES[alliance][piece.getPieceType().ordinal()][piece.getPosition()];
+        if (!piece.is(PieceType.KING)) {
+            return key;
+        }
+        final King king = (King) piece;
+        return key ^ (king.isKingSideCastleCapable() ? CASTLING[2 * alliance] : 0L) ^
+                (king.isQueenSideCastleCapable() ? CASTLING[2 * alliance + 1] : 0L);
+    }
+
+    public static long enPassant(final Board board) {
+        return enPassant(board, board.getEnPassantPawn());
+    }
+
+    static long enPassant(final Board board,
+                          final Pawn enPassantPawn) {
+        if (enPassantPawn == null) {
+            return 0L;
+        }
+        final int position = enPassantPawn.getPosition();
+        return isEnemyPawn(board, position - 1, enPassantPawn) || isEnemyPawn(board, position + 1, enPassantPawn) ?
+                EN_PASSANT[position & 7] : 0L;
+    }
+
+    private static boolean isEnemyPawn(final Board board,
+                                       final int position,
+                                       final Pawn pawn) {
+        if (!Piece.isValidTileCoordinate(position)) {
+            return false;
+        }
+        final Piece piece = board.getPiece(position);
+        return piece != null && piece.is(PieceType.PAWN) && piece.getAlliance() != pawn.getAlliance();
+    }
+}
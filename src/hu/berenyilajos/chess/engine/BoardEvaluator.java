@@ -25,25 +25,7 @@ public interface BoardEvaluator {
     }
 
     static boolean equalsForRepetition(Board b, Board board) {
-        if (board.currentPlayer().getAlliance() != b.currentPlayer().getAlliance() ||
-                board.currentPlayer().getActivePieces().size() != b.currentPlayer().getActivePieces().size() ||
-                board.currentPlayer().getOpponent().getActivePieces().size() != b.currentPlayer().getOpponent().getActivePieces().size() ||
-                board.currentPlayer().isCastled() && !b.currentPlayer().isCastled() ||
-                board.currentPlayer().isCastled() && !b.currentPlayer().isCastled() ||
-                board.currentPlayer().getOpponent().isCastled() && !b.currentPlayer().getOpponent().isCastled() ||
-                board.currentPlayer().getOpponent().isCastled() && !b.currentPlayer().getOpponent().isCastled() ||
-                board.getBoardConfig().size() != b.getBoardConfig().size()
-        ) {
-            return false;
-        }
-
-        for (Map.Entry<Integer, Piece> e : b.getBoardConfig().entrySet()) {
-            if (!equalsWithSamePosition(e.getValue(), board.getBoardConfig().get(e.getKey()))) {
-                return false;
-            }
-        }
-
-        return true;
+        return b.getZobristKey() == board.getZobristKey();
     }
 
     static boolean equalsWithSamePosition(Piece p1, Piece p2) {
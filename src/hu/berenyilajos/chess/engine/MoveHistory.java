@@ -0,0 +1,136 @@
+package hu.berenyilajos.chess.engine;
+
+import hu.berenyilajos.chess.board.Bitboards;
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.Move;
+import hu.berenyilajos.chess.board.PackedMove;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static hu.berenyilajos.chess.board.Move.MoveFactory;
+
+/**
+ * Statistics of the quiet moves that caused beta cutoffs during one search: two killer moves per ply, a butterfly
+ * history indexed by side, origin and destination, the countermove that refuted each opponent move and a follow-up
+ * history of quiet moves played after the side's own previous move. History scores move towards
+ * +/-{@link #MAX_HISTORY} and are never larger in absolute value.
+ */
+final class MoveHistory {
+
+    static final int MAX_HISTORY = 16384;
+
+    private static final int MAX_PLY = 128;
+    private static final int PIECE_SQUARES = 6 * 64;
+
+    private final int[][] killers;
+    private final int[] butterfly;
+    private final int[] counterMoves;
+    private final int[] followUps;
+
+    MoveHistory() {
+        this.killers = new int[MAX_PLY][2];
+        this.butterfly = new int[2 * 64 * 64];
+        this.counterMoves = new int[2 * PIECE_SQUARES];
+        this.followUps = new int[2 * PIECE_SQUARES * PIECE_SQUARES];
+    }
+
+    void clear() {
+        for (final int[] killer : this.killers) {
+            Arrays.fill(killer, PackedMove.NONE);
+        }
+        Arrays.fill(this.butterfly, 0);
+        Arrays.fill(this.counterMoves, PackedMove.NONE);
+        Arrays.fill(this.followUps, 0);
+    }
+
+    int getKiller(final int ply,
+                  final int slot) {
+        return ply < MAX_PLY ? this.killers[ply][slot] : PackedMove.NONE;
+    }
+
+    int getCounterMove(final Move previousMove) {
+        return previousMove == MoveFactory.getNullMove() ? PackedMove.NONE : this.counterMoves[counterMoveIndex(previousMove)];
+    }
+
+    /**
+     * Butterfly plus follow-up history of a quiet move; the follow-up part is skipped when the side has not moved
+     * yet in the searched line.
+     */
+    int getScore(final Move move,
+                 final Move ownPreviousMove) {
+        int score = this.butterfly[butterflyIndex(move)];
+        if (ownPreviousMove != MoveFactory.getNullMove()) {
+            score += this.followUps[followUpIndex(ownPreviousMove, move)];
+        }
+        return score;
+    }
+
+    /**
+     * Rewards a quiet move that caused a beta cutoff and penalises the quiet moves searched before it at the same
+     * node, by {@code depth * depth}.
+     */
+    void update(final int ply,
+                final int depth,
+                final Move cutoffMove,
+                final Move previousMove,
+                final Move ownPreviousMove,
+                final List<Move> searchedQuiets) {
+        final int packedMove = PackedMove.fromMove(cutoffMove);
+        if (ply < MAX_PLY && this.killers[ply][0] != packedMove) {
+            this.killers[ply][1] = this.killers[ply][0];
+            this.killers[ply][0] = packedMove;
+        }
+        if (previousMove != MoveFactory.getNullMove()) {
+            this.counterMoves[counterMoveIndex(previousMove)] = packedMove;
+        }
+        final int bonus = Math.min(depth * depth, MAX_HISTORY);
+        updateScores(cutoffMove, ownPreviousMove, bonus);
+        for (final Move quiet : searchedQuiets) {
+            updateScores(quiet, ownPreviousMove, -bonus);
+        }
+    }
+
+    /**
+     * The move the side to move played before the opponent's last move, or the null move.
+     */
+    static Move ownPreviousMove(final Board board) {
+        final Move previousMove = board.getTransitionMove();
+        return previousMove == MoveFactory.getNullMove() ? previousMove : previousMove.getBoard().getTransitionMove();
+    }
+
+    private void updateScores(final Move move,
+                              final Move ownPreviousMove,
+                              final int bonus) {
+        gravitate(this.butterfly, butterflyIndex(move), bonus);
+        if (ownPreviousMove != MoveFactory.getNullMove()) {
+            gravitate(this.followUps, followUpIndex(ownPreviousMove, move), bonus);
+        }
+    }
+
+    private static void gravitate(final int[] table,
+                                  final int index,
+                                  final int bonus) {
+        table[index] += bonus - table[index] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private static int butterflyIndex(final Move move) {
+        return (move.getMovedPiece().getAlliance().ordinal() << 12) |
+                (Bitboards.toSquare64(move.getCurrentCoordinate()) << 6) |
+                Bitboards.toSquare64(move.getDestinationCoordinate());
+    }
+
+    private static int followUpIndex(final Move ownPreviousMove,
+                                     final Move move) {
+        return (move.getMovedPiece().getAlliance().ordinal() * PIECE_SQUARES + pieceSquare(ownPreviousMove)) * PIECE_SQUARES +
+                pieceSquare(move);
+    }
+
+    private static int counterMoveIndex(final Move previousMove) {
+        return previousMove.getMovedPiece().getAlliance().ordinal() * PIECE_SQUARES + pieceSquare(previousMove);
+    }
+
+    private static int pieceSquare(final Move move) {
+        return move.getMovedPiece().getPieceType().ordinal() * 64 + Bitboards.toSquare64(move.getDestinationCoordinate());
+    }
+}
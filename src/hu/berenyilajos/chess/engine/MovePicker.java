@@ -0,0 +1,245 @@
+package hu.berenyilajos.chess.engine;
+
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.BoardUtils;
+import hu.berenyilajos.chess.board.Move;
+import hu.berenyilajos.chess.board.PackedMove;
+import hu.berenyilajos.chess.pieces.Piece;
+import hu.berenyilajos.chess.pieces.PieceType;
+import hu.berenyilajos.chess.player.Player;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static hu.berenyilajos.chess.board.Move.MoveFactory;
+
+/**
+ * Hands out the moves of an interior node one at a time, in stages: the hash move, captures that win or keep
+ * material by static exchange, the killer moves and the countermove, the remaining quiet moves by history and the
+ * losing captures. Each stage is generated and scored only when the previous one is used up, and the next move is
+ * picked by a selection step over a score array, so a node that cuts off early never generates or sorts the rest.
+ * Moves are pseudo-legal: the caller has to check that they do not leave the own king in check.
+ */
+final class MovePicker {
+
+    private static final int MVV_LVA_RANGE = 2048;
+    private static final int UNDER_PROMOTION_SCORE = -2 * MoveHistory.MAX_HISTORY - 1;
+
+    private enum Stage {
+        HASH_MOVE,
+        GENERATE_CAPTURES,
+        GOOD_CAPTURES,
+        REFUTATIONS,
+        GENERATE_QUIETS,
+        QUIETS,
+        BAD_CAPTURES,
+        DONE
+    }
+
+    private final Board board;
+    private final Player player;
+    private final MoveHistory moveHistory;
+    private final int hashMove;
+    private final int[] refutations;
+    private Stage stage;
+    private int refutationIndex;
+    private Move[] captures;
+    private int[] captureScores;
+    private int captureIndex;
+    private Move[] quiets;
+    private int[] quietScores;
+    private int quietCount;
+    private int quietIndex;
+
+    MovePicker(final Board board,
+               final int hashMove,
+               final MoveHistory moveHistory,
+               final int ply) {
+        this.board = board;
+        this.player = board.currentPlayer();
+        this.moveHistory = moveHistory;
+        this.hashMove = hashMove;
+        this.refutations = distinct(moveHistory.getKiller(ply, 0), moveHistory.getKiller(ply, 1),
+                moveHistory.getCounterMove(board.getTransitionMove()));
+        this.stage = Stage.HASH_MOVE;
+    }
+
+    /**
+     * The next move to search, or the null move when there are no more.
+     */
+    Move next() {
+        while (true) {
+            switch (this.stage) {
+                case HASH_MOVE: {
+                    this.stage = Stage.GENERATE_CAPTURES;
+                    final Move move = findMove(this.hashMove);
+                    if (move != MoveFactory.getNullMove()) {
+                        return move;
+                    }
+                    break;
+                }
+                case GENERATE_CAPTURES:
+                    generateCaptures();
+                    this.stage = Stage.GOOD_CAPTURES;
+                    break;
+                case GOOD_CAPTURES:
+                    if (this.captureIndex < this.captures.length &&
+                            selectBest(this.captures, this.captureScores, this.captureIndex, this.captures.length) >= 0) {
+                        return this.captures[this.captureIndex++];
+                    }
+                    this.stage = Stage.REFUTATIONS;
+                    break;
+                case REFUTATIONS:
+                    while (this.refutationIndex < this.refutations.length) {
+                        final Move move = findMove(this.refutations[this.refutationIndex++]);
+                        if (move != MoveFactory.getNullMove() && isQuiet(move)) {
+                            return move;
+                        }
+                    }
+                    this.stage = Stage.GENERATE_QUIETS;
+                    break;
+                case GENERATE_QUIETS:
+                    generateQuiets();
+                    this.stage = Stage.QUIETS;
+                    break;
+                case QUIETS:
+                    if (this.quietIndex < this.quietCount) {
+                        selectBest(this.quiets, this.quietScores, this.quietIndex, this.quietCount);
+                        return this.quiets[this.quietIndex++];
+                    }
+                    this.stage = Stage.BAD_CAPTURES;
+                    break;
+                case BAD_CAPTURES:
+                    if (this.captureIndex < this.captures.length) {
+                        selectBest(this.captures, this.captureScores, this.captureIndex, this.captures.length);
+                        return this.captures[this.captureIndex++];
+                    }
+                    this.stage = Stage.DONE;
+                    break;
+                case DONE:
+                    return MoveFactory.getNullMove();
+                default:
+                    throw new RuntimeException("Unknown stage " + this.stage);
+            }
+        }
+    }
+
+    static boolean isQuiet(final Move move) {
+        return !move.isAttack() && move.getPromotionPiece() == null;
+    }
+
+    /**
+     * Captures, en passant and queen promotions: the moves of {@link Player#calculateAttackMoves()}, scored by
+     * static exchange value with MVV-LVA as the tie breaker, so that a score is negative exactly when the capture
+     * loses material.
+     */
+    private void generateCaptures() {
+        final List<Move> attackMoves = this.player.calculateAttackMoves();
+        this.captures = new Move[attackMoves.size()];
+        this.captureScores = new int[attackMoves.size()];
+        int count = 0;
+        for (final Move move : attackMoves) {
+            if (PackedMove.fromMove(move) != this.hashMove) {
+                this.captures[count] = move;
+                this.captureScores[count] = BoardUtils.see(move) * MVV_LVA_RANGE + BoardUtils.mvvlva(move) + MVV_LVA_RANGE / 2;
+                count++;
+            }
+        }
+        if (count < this.captures.length) {
+            this.captures = Arrays.copyOf(this.captures, count);
+            this.captureScores = Arrays.copyOf(this.captureScores, count);
+        }
+    }
+
+    /**
+     * Every move the capture stage did not produce: quiet moves, castles and under-promotions, the latter after all
+     * quiet moves.
+     */
+    private void generateQuiets() {
+        final List<Move> legalMoves = this.player.getLegalMoves();
+        this.quiets = new Move[legalMoves.size()];
+        this.quietScores = new int[legalMoves.size()];
+        final Move ownPreviousMove = MoveHistory.ownPreviousMove(this.board);
+        for (final Move move : legalMoves) {
+            final Piece promotionPiece = move.getPromotionPiece();
+            if (promotionPiece == null ? move.isAttack() : promotionPiece.is(PieceType.QUEEN)) {
+                continue;
+            }
+            final int packedMove = PackedMove.fromMove(move);
+            if (packedMove == this.hashMove || isRefutation(packedMove)) {
+                continue;
+            }
+            this.quiets[this.quietCount] = move;
+            this.quietScores[this.quietCount] = promotionPiece == null ?
+                    this.moveHistory.getScore(move, ownPreviousMove) : UNDER_PROMOTION_SCORE;
+            this.quietCount++;
+        }
+    }
+
+    private boolean isRefutation(final int packedMove) {
+        for (final int refutation : this.refutations) {
+            if (refutation == packedMove) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds a packed move on this board by generating the moves of the piece on its origin square only; the null
+     * move if that piece cannot play it (e.g. a hash move of another position with the same key).
+     */
+    private Move findMove(final int packedMove) {
+        if (packedMove == PackedMove.NONE) {
+            return MoveFactory.getNullMove();
+        }
+        final Piece piece = this.board.getPiece(PackedMove.from(packedMove));
+        if (piece == null || piece.getAlliance() != this.player.getAlliance()) {
+            return MoveFactory.getNullMove();
+        }
+        final List<Move> candidates = PackedMove.isCastle(packedMove) ? this.player.calculateKingCastles() :
+                this.board.calculateLegalMoves(Collections.singletonList(piece));
+        for (final Move candidate : candidates) {
+            if (PackedMove.fromMove(candidate) == packedMove) {
+                return candidate;
+            }
+        }
+        return MoveFactory.getNullMove();
+    }
+
+    private int[] distinct(final int firstKiller,
+                           final int secondKiller,
+                           final int counterMove) {
+        final int[] moves = new int[3];
+        int count = 0;
+        for (final int move : new int[] { firstKiller, secondKiller, counterMove }) {
+            if (move != PackedMove.NONE && move != this.hashMove &&
+                    (count == 0 || moves[0] != move) && (count < 2 || moves[1] != move)) {
+                moves[count++] = move;
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    private static int selectBest(final Move[] moves,
+                                  final int[] scores,
+                                  final int from,
+                                  final int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != from) {
+            final Move move = moves[best];
+            moves[best] = moves[from];
+            moves[from] = move;
+            final int score = scores[best];
+            scores[best] = scores[from];
+            scores[from] = score;
+        }
+        return scores[from];
+    }
+}
@@ -0,0 +1,167 @@
+package hu.berenyilajos.chess.engine;
+
+import hu.berenyilajos.chess.board.Bitboards;
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.pieces.Alliance;
+import hu.berenyilajos.chess.pieces.PieceType;
+
+/**
+ * Pawn structure term of {@link StandardBoardEvaluator}: doubled, isolated, backward, passed and connected pawns,
+ * which depend on nothing but the two pawn bitboards, plus the pawn shield in front of each king. Both are cached in a
+ * small table indexed by a hash of the pawn bitboards; entries keep both bitboards, so a hit is always exact, and the
+ * shield of the king squares it was last computed for. Entries are immutable and replaced as a whole, so search
+ * threads share the table without locking.
+ */
+public final class PawnStructureAnalyzer {
+
+    private static final int TABLE_BITS = 16;
+    private static final int DOUBLED_PAWN_PENALTY = 15;
+    private static final int ISOLATED_PAWN_PENALTY = 15;
+    private static final int BACKWARD_PAWN_PENALTY = 10;
+    private static final int CONNECTED_PAWN_BONUS = 8;
+    private static final int[] PASSED_PAWN_BONUS = { 0, 10, 15, 25, 40, 65, 100, 0 };
+    private static final int SHIELD_BONUS = 10;
+    private static final int FAR_SHIELD_BONUS = 5;
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    private static final long[] RANKS = new long[8];
+    private static final long[][] FORWARD_RANKS = new long[2][8];
+
+    private static final PawnStructureAnalyzer INSTANCE = new PawnStructureAnalyzer();
+
+    static {
+        for (int i = 0; i < 8; i++) {
+            FILES[i] = FILE_A << i;
+            RANKS[i] = 0xFFL << (8 * i);
+        }
+        for (int i = 0; i < 8; i++) {
+            ADJACENT_FILES[i] = (i > 0 ? FILES[i - 1] : 0L) | (i < 7 ? FILES[i + 1] : 0L);
+            // rows are counted from the eighth rank, white pawns move towards row 0
+            FORWARD_RANKS[Alliance.WHITE.ordinal()][i] = (1L << (8 * i)) - 1;
+            FORWARD_RANKS[Alliance.BLACK.ordinal()][i] = i == 7 ? 0L : -1L << (8 * (i + 1));
+        }
+    }
+
+    private final Entry[] table;
+
+    private PawnStructureAnalyzer() {
+        this.table = new Entry[1 << TABLE_BITS];
+    }
+
+    public static PawnStructureAnalyzer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Pawn structure and pawn shield score of the position, from white's point of view.
+     */
+    public int pawnStructureScore(final Board board) {
+        final Bitboards bitboards = board.getBitboards();
+        final long whitePawns = bitboards.getPieces(Alliance.WHITE, PieceType.PAWN);
+        final long blackPawns = bitboards.getPieces(Alliance.BLACK, PieceType.PAWN);
+        final int whiteKing = Long.numberOfTrailingZeros(bitboards.getPieces(Alliance.WHITE, PieceType.KING));
+        final int blackKing = Long.numberOfTrailingZeros(bitboards.getPieces(Alliance.BLACK, PieceType.KING));
+        final int kings = whiteKing | blackKing << 8;
+        final int index = (int) ((whitePawns * 0x9E3779B97F4A7C15L ^ blackPawns * 0xC2B2AE3D27D4EB4FL) >>> (64 - TABLE_BITS));
+        Entry entry = this.table[index];
+        if (entry == null || entry.whitePawns != whitePawns || entry.blackPawns != blackPawns) {
+            final int score = pawnScore(Alliance.WHITE, whitePawns, blackPawns) - pawnScore(Alliance.BLACK, blackPawns, whitePawns);
+            entry = new Entry(whitePawns, blackPawns, score, kings, shield(whitePawns, blackPawns, whiteKing, blackKing));
+            this.table[index] = entry;
+        } else if (entry.kings != kings) {
+            entry = new Entry(whitePawns, blackPawns, entry.score, kings, shield(whitePawns, blackPawns, whiteKing, blackKing));
+            this.table[index] = entry;
+        }
+        return entry.score + entry.shield;
+    }
+
+    private static int shield(final long whitePawns,
+                              final long blackPawns,
+                              final int whiteKing,
+                              final int blackKing) {
+        return pawnShield(Alliance.WHITE, whiteKing, whitePawns) - pawnShield(Alliance.BLACK, blackKing, blackPawns);
+    }
+
+    private static int pawnScore(final Alliance alliance,
+                                 final long ownPawns,
+                                 final long enemyPawns) {
+        final Alliance enemy = alliance == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            final int pawnsOnFile = Long.bitCount(ownPawns & FILES[file]);
+            if (pawnsOnFile > 1) {
+                score -= (pawnsOnFile - 1) * DOUBLED_PAWN_PENALTY;
+            }
+        }
+        for (long pawns = ownPawns; pawns != 0; pawns &= pawns - 1) {
+            final int square = Long.numberOfTrailingZeros(pawns);
+            final int file = square & 7;
+            final int row = square >>> 3;
+            final long forward = FORWARD_RANKS[alliance.ordinal()][row];
+            final boolean supported = (Bitboards.pawnAttacks(enemy, square) & ownPawns) != 0;
+            final boolean phalanx = (ADJACENT_FILES[file] & RANKS[row] & ownPawns) != 0;
+            if (supported || phalanx) {
+                score += CONNECTED_PAWN_BONUS;
+            }
+            if ((ADJACENT_FILES[file] & ownPawns) == 0) {
+                score -= ISOLATED_PAWN_PENALTY;
+            } else if (!supported && (ADJACENT_FILES[file] & ~forward & ownPawns) == 0 &&
+                    (Bitboards.pawnAttacks(alliance, stopSquare(alliance, square)) & enemyPawns) != 0) {
+                score -= BACKWARD_PAWN_PENALTY;
+            }
+            if (((FILES[file] | ADJACENT_FILES[file]) & forward & enemyPawns) == 0 && (FILES[file] & forward & ownPawns) == 0) {
+                score += PASSED_PAWN_BONUS[alliance == Alliance.WHITE ? 7 - row : row];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Own pawns on the king's file and the files next to it, one and two ranks in front of a king that is still on
+     * its first two ranks.
+     */
+    private static int pawnShield(final Alliance alliance,
+                                  final int square,
+                                  final long ownPawns) {
+        if (square == Long.SIZE) {
+            return 0;
+        }
+        final int row = square >>> 3;
+        final int relativeRow = alliance == Alliance.WHITE ? 7 - row : row;
+        if (relativeRow > 1) {
+            return 0;
+        }
+        final int direction = alliance == Alliance.WHITE ? -1 : 1;
+        final long files = FILES[square & 7] | ADJACENT_FILES[square & 7];
+        return SHIELD_BONUS * Long.bitCount(ownPawns & files & RANKS[row + direction]) +
+                FAR_SHIELD_BONUS * Long.bitCount(ownPawns & files & RANKS[row + 2 * direction]);
+    }
+
+    private static int stopSquare(final Alliance alliance,
+                                  final int square) {
+        return alliance == Alliance.WHITE ? square - 8 : square + 8;
+    }
+
+    private static final class Entry {
+
+        private final long whitePawns;
+        private final long blackPawns;
+        private final int score;
+        private final int kings;
+        private final int shield;
+
+        private Entry(final long whitePawns,
+                      final long blackPawns,
+                      final int score,
+                      final int kings,
+                      final int shield) {
+            this.whitePawns = whitePawns;
+            this.blackPawns = blackPawns;
+            this.score = score;
+            this.kings = kings;
+            this.shield = shield;
+        }
+    }
+}
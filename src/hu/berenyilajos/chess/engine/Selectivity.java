@@ -0,0 +1,224 @@
+package hu.berenyilajos.chess.engine;
+
+/**
+ * Switches and margins of the forward pruning and reductions of {@link StockAlphaBeta}, so that each technique can
+ * be measured alone. Depth limits are in plies, margins in centipawns per ply of remaining depth.
+ */
+public final class Selectivity {
+
+    private static final Selectivity DEFAULTS = new Builder().build();
+    private static final Selectivity NONE = new Builder()
+            .setNullMovePruning(false)
+            .setLateMoveReductions(false)
+            .setFutilityPruning(false)
+            .setReverseFutilityPruning(false)
+            .setRazoring(false)
+            .build();
+
+    private final boolean nullMovePruning;
+    private final boolean lateMoveReductions;
+    private final int lateMoveMinDepth;
+    private final int lateMoveMinMoves;
+    private final int lateMoveDivisor;
+    private final boolean futilityPruning;
+    private final int futilityMaxDepth;
+    private final int futilityMargin;
+    private final boolean reverseFutilityPruning;
+    private final int reverseFutilityMaxDepth;
+    private final int reverseFutilityMargin;
+    private final boolean razoring;
+    private final int razoringMaxDepth;
+    private final int razoringMargin;
+
+    private Selectivity(final Builder builder) {
+        this.nullMovePruning = builder.nullMovePruning;
+        this.lateMoveReductions = builder.lateMoveReductions;
+        this.lateMoveMinDepth = builder.lateMoveMinDepth;
+        this.lateMoveMinMoves = builder.lateMoveMinMoves;
+        this.lateMoveDivisor = builder.lateMoveDivisor;
+        this.futilityPruning = builder.futilityPruning;
+        this.futilityMaxDepth = builder.futilityMaxDepth;
+        this.futilityMargin = builder.futilityMargin;
+        this.reverseFutilityPruning = builder.reverseFutilityPruning;
+        this.reverseFutilityMaxDepth = builder.reverseFutilityMaxDepth;
+        this.reverseFutilityMargin = builder.reverseFutilityMargin;
+        this.razoring = builder.razoring;
+        this.razoringMaxDepth = builder.razoringMaxDepth;
+        this.razoringMargin = builder.razoringMargin;
+    }
+
+    public static Selectivity defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Full-width search: every legal move is searched to the full depth.
+     */
+    public static Selectivity none() {
+        return NONE;
+    }
+
+    boolean isNullMovePruning() {
+        return this.nullMovePruning;
+    }
+
+    /**
+     * Plies a late quiet move is reduced by: ln(depth) * ln(moveNumber) / (divisor / 100), rounded down, where
+     * moveNumber counts the legal moves searched before it at the node. Zero for the first
+     * {@link Builder#setLateMoveReductions(int, int, int) minMoves} moves and below the minimum depth.
+     */
+    int lateMoveReduction(final int depth,
+                          final int moveNumber) {
+        if (!this.lateMoveReductions || depth < this.lateMoveMinDepth || moveNumber < this.lateMoveMinMoves) {
+            return 0;
+        }
+        return (int) (100 * Math.log(depth) * Math.log(moveNumber) / this.lateMoveDivisor);
+    }
+
+    /**
+     * Whether quiet moves may be skipped at this depth when the static evaluation plus the margin does not reach
+     * alpha.
+     */
+    boolean isFutile(final int depth,
+                     final int staticEvaluation,
+                     final int alpha) {
+        return this.futilityPruning && depth <= this.futilityMaxDepth &&
+                staticEvaluation + this.futilityMargin * depth <= alpha;
+    }
+
+    /**
+     * Whether the node may fail high without a search because the static evaluation minus the margin still reaches
+     * beta.
+     */
+    boolean isReverseFutile(final int depth,
+                            final int staticEvaluation,
+                            final int beta) {
+        return this.reverseFutilityPruning && depth <= this.reverseFutilityMaxDepth &&
+                staticEvaluation - this.reverseFutilityMargin * depth >= beta;
+    }
+
+    /**
+     * Whether the static evaluation is so far below alpha that a quiescence search decides whether the node is
+     * searched at all.
+     */
+    boolean isRazoring(final int depth,
+                       final int staticEvaluation,
+                       final int alpha) {
+        return this.razoring && depth <= this.razoringMaxDepth && staticEvaluation + this.razoringMargin * depth <= alpha;
+    }
+
+    @Override
+    public String toString() {
+        return "null move: " + this.nullMovePruning +
+                ", lmr: " + (this.lateMoveReductions ?
+                this.lateMoveMinDepth + "/" + this.lateMoveMinMoves + "/" + this.lateMoveDivisor : "false") +
+                ", futility: " + (this.futilityPruning ? this.futilityMaxDepth + "/" + this.futilityMargin : "false") +
+                ", reverse futility: " + (this.reverseFutilityPruning ?
+                this.reverseFutilityMaxDepth + "/" + this.reverseFutilityMargin : "false") +
+                ", razoring: " + (this.razoring ? this.razoringMaxDepth + "/" + this.razoringMargin : "false");
+    }
+
+    public static class Builder {
+
+        boolean nullMovePruning;
+        boolean lateMoveReductions;
+        int lateMoveMinDepth;
+        int lateMoveMinMoves;
+        int lateMoveDivisor;
+        boolean futilityPruning;
+        int futilityMaxDepth;
+        int futilityMargin;
+        boolean reverseFutilityPruning;
+        int reverseFutilityMaxDepth;
+        int reverseFutilityMargin;
+        boolean razoring;
+        int razoringMaxDepth;
+        int razoringMargin;
+
+        public Builder() {
+            this.nullMovePruning = true;
+            this.lateMoveReductions = true;
+            this.lateMoveMinDepth = 3;
+            this.lateMoveMinMoves = 3;
+            this.lateMoveDivisor = 200;
+            this.futilityPruning = true;
+            this.futilityMaxDepth = 2;
+            this.futilityMargin = 150;
+            this.reverseFutilityPruning = true;
+            this.reverseFutilityMaxDepth = 3;
+            this.reverseFutilityMargin = 120;
+            this.razoring = true;
+            this.razoringMaxDepth = 2;
+            this.razoringMargin = 300;
+        }
+
+        public Builder setNullMovePruning(final boolean nullMovePruning) {
+            this.nullMovePruning = nullMovePruning;
+            return this;
+        }
+
+        public Builder setLateMoveReductions(final boolean lateMoveReductions) {
+            this.lateMoveReductions = lateMoveReductions;
+            return this;
+        }
+
+        /**
+         * @param divisor hundredths; larger values reduce less
+         */
+        public Builder setLateMoveReductions(final int minDepth,
+                                             final int minMoves,
+                                             final int divisor) {
+            if (minDepth < 2 || minMoves < 1 || divisor < 1) {
+                throw new RuntimeException("Invalid late move reduction parameters " + minDepth + "/" + minMoves + "/" + divisor);
+            }
+            this.lateMoveReductions = true;
+            this.lateMoveMinDepth = minDepth;
+            this.lateMoveMinMoves = minMoves;
+            this.lateMoveDivisor = divisor;
+            return this;
+        }
+
+        public Builder setFutilityPruning(final boolean futilityPruning) {
+            this.futilityPruning = futilityPruning;
+            return this;
+        }
+
+        public Builder setFutilityPruning(final int maxDepth,
+                                          final int margin) {
+            this.futilityPruning = true;
+            this.futilityMaxDepth = maxDepth;
+            this.futilityMargin = margin;
+            return this;
+        }
+
+        public Builder setReverseFutilityPruning(final boolean reverseFutilityPruning) {
+            this.reverseFutilityPruning = reverseFutilityPruning;
+            return this;
+        }
+
+        public Builder setReverseFutilityPruning(final int maxDepth,
+                                                 final int margin) {
+            this.reverseFutilityPruning = true;
+            this.reverseFutilityMaxDepth = maxDepth;
+            this.reverseFutilityMargin = margin;
+            return this;
+        }
+
+        public Builder setRazoring(final boolean razoring) {
+            this.razoring = razoring;
+            return this;
+        }
+
+        public Builder setRazoring(final int maxDepth,
+                                   final int margin) {
+            this.razoring = true;
+            this.razoringMaxDepth = maxDepth;
+            this.razoringMargin = margin;
+            return this;
+        }
+
+        public Selectivity build() {
+            return new Selectivity(this);
+        }
+    }
+}
@@ -27,7 +27,7 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
     @Override
     public int evaluate(final Board board,
                         final int depth) {
-        return score(board.whitePlayer(), depth) - score(board.blackPlayer(), depth);
+        return score(board.whitePlayer(), depth) - score(board.blackPlayer(), depth) + pawnStructure(board);
     }
 
     @VisibleForTesting
@@ -37,9 +37,7 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 //               kingThreats(player, depth) +
                attacks(player) +
                castle(player) +
-               pieceEvaluations(player)
-//               + pawnStructure(player);
-        ;
+               pieceEvaluations(player);
     }
 
     private static int attacks(final Player player) {
@@ -93,9 +91,9 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
         return player.isCastled() ? CASTLE_BONUS : 0;
     }
 
-//    private static int pawnStructure(final Player player) {
-//        return PawnStructureAnalyzer.get().pawnStructureScore(player);
-//    }
+    private static int pawnStructure(final Board board) {
+        return PawnStructureAnalyzer.get().pawnStructureScore(board);
+    }
 //
 //    private static int kingSafety(final Player player) {
 //        final KingDistance kingDistance = KingSafetyAnalyzer.get().calculateKingTropism(player);
@@ -1,34 +1,113 @@
 package hu.berenyilajos.chess.engine;
 
-import hu.berenyilajos.chess.board.BoardUtils;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.Ordering;
+import hu.berenyilajos.chess.board.Bitboards;
 import hu.berenyilajos.chess.board.Board;
 import hu.berenyilajos.chess.board.Move;
+import hu.berenyilajos.chess.board.MoveGenerator;
 import hu.berenyilajos.chess.board.MoveTransition;
+import hu.berenyilajos.chess.board.PackedMove;
+import hu.berenyilajos.chess.board.PieceMoveGenerator;
+import hu.berenyilajos.chess.pieces.Alliance;
+import hu.berenyilajos.chess.pieces.Piece;
+import hu.berenyilajos.chess.pieces.PieceType;
 import hu.berenyilajos.chess.player.Player;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static hu.berenyilajos.chess.board.BoardUtils.givesCheck;
 import static hu.berenyilajos.chess.board.BoardUtils.mvvlva;
+import static hu.berenyilajos.chess.board.BoardUtils.see;
 import static hu.berenyilajos.chess.board.Move.MoveFactory;
 
 public class StockAlphaBeta extends Observable implements MoveStrategy {
 
     private final BoardEvaluator evaluator;
     private final int searchDepth;
+    private final MoveGenerator moveGenerator;
+    private final TranspositionTable transpositionTable;
+    private final TimeControl timeControl;
+    private final int threads;
+    private final Parallelism parallelism;
+    private final int helperIndex;
+    private final MoveHistory moveHistory;
+    private final Selectivity selectivity;
+    private final Map<Move, Long> rootMoveOrder;
+    private ForkJoinPool pool;
+    private SplitPoint splitPoint;
+    private volatile boolean stopped;
+    private int iterationDepth;
+    private int completedDepth;
     private long boardsEvaluated;
+    private long transpositionHits;
+    private long transpositionCutoffs;
+    private long principalVariationResearches;
+    private long aspirationResearches;
+    private long reductionResearches;
+    private long nullMoveCutoffs;
+    private int rootValue;
     private long executionTime;
     private int quiescenceCount;
+    private int quiescenceLimit;
     private final List<Board> whiteAktualRepeatedBoards;
     private final List<Board> blackAktualRepeatedBoards;
     private static final int MAX_QUIESCENCE = 5000*10;
+    private static final int DELTA_MARGIN = 200;
+    private static final Comparator<Move> MVV_LVA = (move1, move2) -> ComparisonChain.start()
+            .compare(captureGain(move2), captureGain(move1))
+            .compare(move1.getMovedPiece().getPieceValue(), move2.getMovedPiece().getPieceValue())
+            .result();
+    private static final int NO_CUTOFF = Integer.MIN_VALUE;
+    private static final long BEST_SO_FAR = 1L << 48;
+    private static final int INFINITE = Integer.MAX_VALUE;
+    private static final int ASPIRATION_DEPTH = 4;
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int MAX_ASPIRATION_WINDOW = 400;
+    private static final int NULL_MOVE_MIN_DEPTH = 2;
+    private static final int NULL_MOVE_ADAPTIVE_DEPTH = 6;
+    private static final int NULL_MOVE_VERIFICATION_DEPTH = 6;
+    private static final int MATE = StandardBoardEvaluator.CHECK_MATE_BONUS;
+    private static final int MAX_MATE_PLY = 256;
+    private static final int MIN_SPLIT_DEPTH = 2;
+    private static final int ONE_PLY = 4;
+    private static final int CHECK_EXTENSION = ONE_PLY;
+    private static final int RECAPTURE_EXTENSION = ONE_PLY / 2;
+    private static final int PAWN_TO_SEVENTH_EXTENSION = ONE_PLY / 2;
+    public static final int MAX_SEARCH_DEPTH = 32;
     private int score;
 
-    private enum MoveSorter {
+    /**
+     * How the search uses more than one thread. LAZY_SMP runs helper searches of the whole tree next to the main
+     * search, ROOT_SPLIT searches the first root move alone and the remaining ones in parallel. YOUNG_BROTHERS_WAIT
+     * splits interior nodes: once the eldest child of a node has been searched, its younger brothers are searched in
+     * parallel on a work-stealing pool.
+     */
+    public enum Parallelism {
+        LAZY_SMP,
+        ROOT_SPLIT,
+        YOUNG_BROTHERS_WAIT
+    }
+
+    enum MoveSorter {
 
         STANDARD {
             @Override
@@ -44,53 +123,176 @@ public class StockAlphaBeta extends Observable implements MoveStrategy {
 //                    return mvvlva(move2) - mvvlva(move1);
 //                });
 //                return moves;
+                final Map<Move, Integer> exchanges = rankExchanges(moves);
                 return Ordering.from((Comparator<Move>) (move1, move2) -> ComparisonChain.start()
                         .compareTrueFirst(move1.isCastlingMove(), move2.isCastlingMove())
+                        .compare(exchanges.get(move2), exchanges.get(move1))
                         .compare(mvvlva(move2), mvvlva(move1))
                         .result()).sortedCopy(moves);
             }
         },
-        EXPENSIVE {
+        CHECKS_FIRST {
             @Override
             List<Move> sort(final List<Move> moves) {
-//                Collections.sort(moves, (Move move1, Move move2) -> {
-//                    boolean kingThreat1 = BoardUtils.kingThreat(move1);
-//                    boolean kingThreat2 = BoardUtils.kingThreat(move2);
-//                    if (kingThreat1 && !kingThreat2) {
-//                        return -1;
-//                    } else if (!kingThreat1 && kingThreat2) {
-//                        return 1;
-//                    }
-//                    boolean isCastlingMove1 = move1.isCastlingMove();
-//                    boolean isCastlingMove2 = move2.isCastlingMove();
-//                    if (isCastlingMove1 && !isCastlingMove2) {
-//                        return -1;
-//                    } else if (!isCastlingMove1 && isCastlingMove2) {
-//                        return 1;
-//                    }
-//                    return mvvlva(move2) - mvvlva(move1);
-//                });
-//                return moves;
+                final Map<Move, Integer> exchanges = rankExchanges(moves);
+                final Set<Move> checks = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (final Move move : moves) {
+                    if (givesCheck(move)) {
+                        checks.add(move);
+                    }
+                }
                 return Ordering.from((Comparator<Move>) (move1, move2) -> ComparisonChain.start()
-                        .compareTrueFirst(BoardUtils.kingThreat(move1), BoardUtils.kingThreat(move2))
+                        .compareTrueFirst(checks.contains(move1), checks.contains(move2))
                         .compareTrueFirst(move1.isCastlingMove(), move2.isCastlingMove())
+                        .compare(exchanges.get(move2), exchanges.get(move1))
                         .compare(mvvlva(move2), mvvlva(move1))
                         .result()).immutableSortedCopy(moves);
             }
         };
 
         abstract List<Move> sort(List<Move> moves);
+
+        /**
+         * Captures and promotions that do not lose material in the exchange rank above quiet moves (0), losing
+         * ones below them, each by their static exchange value.
+         */
+        private static Map<Move, Integer> rankExchanges(final List<Move> moves) {
+            final Map<Move, Integer> exchanges = new IdentityHashMap<>(moves.size() * 2);
+            for (final Move move : moves) {
+                if (move.isAttack() || move.getPromotionPiece() != null) {
+                    final int exchange = see(move);
+                    exchanges.put(move, exchange >= 0 ? exchange + 1 : exchange);
+                } else {
+                    exchanges.put(move, 0);
+                }
+            }
+            return exchanges;
+        }
     }
 
 
     public StockAlphaBeta(final int searchDepth, Observer debugPanel, List<Board> whiteAktualRepeatedBoards, List<Board> blackAktualRepeatedBoards) {
+        this(new Builder(searchDepth)
+                .setDebugPanel(debugPanel)
+                .setRepeatedBoards(whiteAktualRepeatedBoards, blackAktualRepeatedBoards));
+    }
+
+    private StockAlphaBeta(final Builder builder) {
         this.evaluator = StandardBoardEvaluator.get();
-        this.searchDepth = searchDepth;
+        this.searchDepth = builder.searchDepth;
+        this.moveGenerator = builder.moveGenerator;
+        this.transpositionTable = builder.transpositionTable != null ? builder.transpositionTable :
+                new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB);
+        this.timeControl = builder.timeControl;
+        this.threads = builder.threads;
+        this.parallelism = builder.parallelism;
+        this.helperIndex = 0;
+        this.moveHistory = new MoveHistory();
+        this.selectivity = builder.selectivity;
+        this.rootMoveOrder = new IdentityHashMap<>();
         this.boardsEvaluated = 0;
         this.quiescenceCount = 0;
-        this.whiteAktualRepeatedBoards = whiteAktualRepeatedBoards;
-        this.blackAktualRepeatedBoards = blackAktualRepeatedBoards;
-        addObserver(debugPanel);
+        this.whiteAktualRepeatedBoards = builder.whiteAktualRepeatedBoards;
+        this.blackAktualRepeatedBoards = builder.blackAktualRepeatedBoards;
+        if (builder.debugPanel != null) {
+            addObserver(builder.debugPanel);
+        }
+    }
+
+    private StockAlphaBeta(final StockAlphaBeta mainSearch,
+                           final int helperIndex,
+                           final TimeControl timeControl,
+                           final MoveHistory moveHistory) {
+        this.evaluator = mainSearch.evaluator;
+        this.searchDepth = MAX_SEARCH_DEPTH;
+        this.moveGenerator = mainSearch.moveGenerator;
+        this.transpositionTable = mainSearch.transpositionTable;
+        this.timeControl = timeControl;
+        this.threads = 1;
+        this.parallelism = mainSearch.parallelism;
+        this.helperIndex = helperIndex;
+        this.moveHistory = moveHistory;
+        this.selectivity = mainSearch.selectivity;
+        this.rootMoveOrder = new IdentityHashMap<>();
+        this.pool = mainSearch.pool;
+        this.whiteAktualRepeatedBoards = mainSearch.whiteAktualRepeatedBoards;
+        this.blackAktualRepeatedBoards = mainSearch.blackAktualRepeatedBoards;
+    }
+
+    public static class Builder {
+
+        final int searchDepth;
+        @SuppressWarnings("deprecation")
+        Observer debugPanel;
+        List<Board> whiteAktualRepeatedBoards;
+        List<Board> blackAktualRepeatedBoards;
+        MoveGenerator moveGenerator;
+        TranspositionTable transpositionTable;
+        TimeControl timeControl;
+        int threads;
+        Parallelism parallelism;
+        Selectivity selectivity;
+
+        public Builder(final int searchDepth) {
+            this.searchDepth = searchDepth;
+            this.whiteAktualRepeatedBoards = new ArrayList<>();
+            this.blackAktualRepeatedBoards = new ArrayList<>();
+            this.moveGenerator = PieceMoveGenerator.get();
+            this.timeControl = TimeControl.fixedDepth();
+            this.threads = 1;
+            this.parallelism = Parallelism.LAZY_SMP;
+            this.selectivity = Selectivity.defaults();
+        }
+
+        @SuppressWarnings("deprecation")
+        public Builder setDebugPanel(final Observer debugPanel) {
+            this.debugPanel = debugPanel;
+            return this;
+        }
+
+        public Builder setRepeatedBoards(final List<Board> whiteAktualRepeatedBoards,
+                                         final List<Board> blackAktualRepeatedBoards) {
+            this.whiteAktualRepeatedBoards = whiteAktualRepeatedBoards;
+            this.blackAktualRepeatedBoards = blackAktualRepeatedBoards;
+            return this;
+        }
+
+        public Builder setMoveGenerator(final MoveGenerator moveGenerator) {
+            this.moveGenerator = moveGenerator;
+            return this;
+        }
+
+        public Builder setTranspositionTable(final TranspositionTable transpositionTable) {
+            this.transpositionTable = transpositionTable;
+            return this;
+        }
+
+        public Builder setTimeControl(final TimeControl timeControl) {
+            this.timeControl = timeControl;
+            return this;
+        }
+
+        public Builder setThreads(final int threads) {
+            if (threads < 1) {
+                throw new RuntimeException("Invalid thread count " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        public Builder setParallelism(final Parallelism parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder setSelectivity(final Selectivity selectivity) {
+            this.selectivity = selectivity;
+            return this;
+        }
+
+        public StockAlphaBeta build() {
+            return new StockAlphaBeta(this);
+        }
     }
 
     @Override
@@ -103,175 +305,969 @@ public class StockAlphaBeta extends Observable implements MoveStrategy {
         return this.boardsEvaluated;
     }
 
+    public int getCompletedDepth() {
+        return this.completedDepth;
+    }
+
+    public long getTranspositionHits() {
+        return this.transpositionHits;
+    }
+
+    public long getTranspositionCutoffs() {
+        return this.transpositionCutoffs;
+    }
+
     @Override
-    public Move execute(final Board board) {
+    public Move execute(final Board gameBoard) {
         final long startTime = System.currentTimeMillis();
+        final Board board = gameBoard.withMoveGenerator(this.moveGenerator);
+        this.transpositionTable.newSearch();
+        this.moveHistory.clear();
+        this.timeControl.start();
+        System.out.println(board.currentPlayer() + " THINKING with depth = " + this.searchDepth +
+                (this.threads > 1 ? ", threads = " + this.threads : ""));
+        final List<StockAlphaBeta> helpers = new ArrayList<>();
+        final ExecutorService executor = startHelpers(board, helpers);
+        if (this.threads > 1 && this.parallelism != Parallelism.LAZY_SMP) {
+            this.pool = new ForkJoinPool(this.threads);
+        }
+        final Move bestMove;
+        try {
+            // split points fork their brothers onto the pool of the current thread, so the whole search runs on it
+            bestMove = this.pool != null && this.parallelism == Parallelism.YOUNG_BROTHERS_WAIT ?
+                    this.pool.invoke(ForkJoinTask.adapt(() -> iterate(board))) : iterate(board);
+        } finally {
+            stopHelpers(executor, helpers);
+            if (this.pool != null) {
+                this.pool.shutdown();
+                this.pool = null;
+            }
+        }
+
+        this.executionTime = System.currentTimeMillis() - startTime;
+        final String result = board.currentPlayer() + " SELECTS " +bestMove+ " [#boards evaluated = " +this.boardsEvaluated+
+                ", tt hits = " +this.transpositionHits+ ", tt cutoffs = " +this.transpositionCutoffs+
+                ", re-searches = " +this.principalVariationResearches+ "/" +this.aspirationResearches+ "/" +this.reductionResearches+
+                ", null move cutoffs = " +this.nullMoveCutoffs+
+                ", depth = " +this.completedDepth+ " time taken = " +this.executionTime+ " ms, score = " + this.score;
+        System.out.printf("%s SELECTS %s [#boards evaluated = %d, tt hits = %d, tt cutoffs = %d, re-searches = %d/%d/%d, null move cutoffs = %d, depth = %d, time taken = %d ms, rate = %.1f, score: %d\n",
+                board.currentPlayer(), bestMove, this.boardsEvaluated, this.transpositionHits, this.transpositionCutoffs,
+                this.principalVariationResearches, this.aspirationResearches, this.reductionResearches, this.nullMoveCutoffs, this.completedDepth, this.executionTime, (1000 * ((double)this.boardsEvaluated/this.executionTime)), this.score);
+        setChanged();
+        notifyObservers(result);
+        return bestMove;
+    }
+
+    private Move iterate(final Board board) {
+        List<Move> rootMoves = MoveSorter.CHECKS_FIRST.sort(board.currentPlayer().getLegalMoves());
+        Move bestMove = MoveFactory.getNullMove();
+        for (int depth = 1 + (this.helperIndex & 1); depth <= this.searchDepth; depth++) {
+            this.iterationDepth = depth;
+            final Move iterationMove;
+            try {
+                iterationMove = searchWithAspiration(board, rootMoves, depth);
+            } catch (final SearchAbortedException e) {
+                break;
+            }
+            bestMove = iterationMove;
+            this.completedDepth = depth;
+            this.score = board.currentPlayer().isWhite() ? this.rootValue : -this.rootValue;
+            if (!isHelper()) {
+                final String s = "\t" + toString() + " depth " + depth + ": " + bestMove + " " + score(this.score) + " pv: " +
+                        principalVariation(board, depth) + ", t: " + this.timeControl.getElapsed() + " ms";
+                System.out.println(s);
+                setChanged();
+                notifyObservers(s);
+            }
+            if (bestMove == MoveFactory.getNullMove() || rootMoves.size() == 1 || isProvenMate(depth) ||
+                    this.timeControl.isSoftExpired()) {
+                break;
+            }
+            rootMoves = sortRootMoves(rootMoves, bestMove);
+        }
+        return bestMove;
+    }
+
+    private ExecutorService startHelpers(final Board board,
+                                         final List<StockAlphaBeta> helpers) {
+        if (this.threads == 1 || this.parallelism != Parallelism.LAZY_SMP) {
+            return null;
+        }
+        prepareForSharing(board);
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads - 1);
+        for (int i = 1; i < this.threads; i++) {
+            final StockAlphaBeta helper = new StockAlphaBeta(this, i, TimeControl.fixedDepth(), new MoveHistory());
+            helpers.add(helper);
+            executor.execute(() -> helper.iterate(board));
+        }
+        return executor;
+    }
+
+    /**
+     * Players, legal moves and bitboards of a board are created lazily; builds them before the board is shared
+     * between threads.
+     */
+    private static void prepareForSharing(final Board board) {
+        board.whitePlayer().getLegalMoves();
+        board.blackPlayer().getLegalMoves();
+        board.currentPlayer().isInCheckMate();
+        board.currentPlayer().isInStaleMate();
+        board.getBitboards();
+    }
+
+    private void stopHelpers(final ExecutorService executor,
+                             final List<StockAlphaBeta> helpers) {
+        if (executor == null) {
+            return;
+        }
+        for (final StockAlphaBeta helper : helpers) {
+            helper.stopped = true;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (final StockAlphaBeta helper : helpers) {
+            mergeCounters(helper);
+        }
+    }
+
+    /**
+     * Adds the statistics of a helper or worker search to the ones of this search.
+     */
+    private void mergeCounters(final StockAlphaBeta search) {
+        this.boardsEvaluated += search.boardsEvaluated;
+        this.transpositionHits += search.transpositionHits;
+        this.transpositionCutoffs += search.transpositionCutoffs;
+        this.principalVariationResearches += search.principalVariationResearches;
+        this.aspirationResearches += search.aspirationResearches;
+        this.reductionResearches += search.reductionResearches;
+        this.nullMoveCutoffs += search.nullMoveCutoffs;
+    }
+
+    private boolean isHelper() {
+        return this.helperIndex != 0;
+    }
+
+    /**
+     * Searches the root in a window of {@link #ASPIRATION_WINDOW} around the previous iteration's score. When the
+     * score falls outside, the failing side is widened with a doubled margin, and opened completely after a few
+     * tries. Shallow iterations and mate scores get the full window from the start.
+     */
+    private Move searchWithAspiration(final Board board,
+                                      final List<Move> rootMoves,
+                                      final int depth) {
+        final int previousValue = this.rootValue;
+        int delta = ASPIRATION_WINDOW;
+        int alpha = -INFINITE;
+        int beta = INFINITE;
+        if (depth >= ASPIRATION_DEPTH && !isMateScore(previousValue)) {
+            alpha = previousValue - delta;
+            beta = previousValue + delta;
+        }
+        List<Move> moves = rootMoves;
+        while (true) {
+            final Move bestMove = searchRoot(board, moves, depth, alpha, beta);
+            if (this.rootValue <= alpha && alpha > -INFINITE) {
+                delta *= 2;
+                alpha = delta > MAX_ASPIRATION_WINDOW ? -INFINITE : previousValue - delta;
+            } else if (this.rootValue >= beta && beta < INFINITE) {
+                delta *= 2;
+                beta = delta > MAX_ASPIRATION_WINDOW ? INFINITE : previousValue + delta;
+                moves = sortRootMoves(moves, bestMove);
+            } else {
+                return bestMove;
+            }
+            this.aspirationResearches++;
+        }
+    }
+
+    /**
+     * Every root move is searched with the whole window: the best root move still changes often between iterations,
+     * and re-searching a null window fail high costs more there than it saves.
+     */
+    private Move searchRoot(final Board board,
+                            final List<Move> rootMoves,
+                            final int depth,
+                            final int alpha,
+                            final int beta) {
+        if (this.pool != null && this.parallelism == Parallelism.ROOT_SPLIT) {
+            return searchRootSplit(board, rootMoves, depth, alpha, beta);
+        }
         final Player currentPlayer = board.currentPlayer();
         Move bestMove = MoveFactory.getNullMove();
-        int highestSeenValue = Integer.MIN_VALUE;
-        int lowestSeenValue = Integer.MAX_VALUE;
-        int currentValue;
-        System.out.println(board.currentPlayer() + " THINKING with depth = " + this.searchDepth);
+        int currentAlpha = alpha;
         int moveCounter = 1;
-        int numMoves = board.currentPlayer().getLegalMoves().size();
+        final int numMoves = rootMoves.size();
 
-        for (final Move move : MoveSorter.EXPENSIVE.sort((board.currentPlayer().getLegalMoves()))) {
-            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+        this.rootMoveOrder.clear();
+        for (final Move move : rootMoves) {
+            final MoveTransition moveTransition = currentPlayer.makeMove(move);
             this.quiescenceCount = 0;
             final String s;
             if (moveTransition.getMoveStatus().isDone()) {
                 final long candidateMoveStartTime = System.nanoTime();
-                currentValue = currentPlayer.isWhite() ?
-                        min(moveTransition.getToBoard(), this.searchDepth - 1, highestSeenValue, lowestSeenValue) :
-                        max(moveTransition.getToBoard(), this.searchDepth - 1, highestSeenValue, lowestSeenValue);
-                if (currentPlayer.isWhite() && currentValue > highestSeenValue) {
-                    highestSeenValue = currentValue;
-                    bestMove = move;
-                    if(moveTransition.getToBoard().blackPlayer().isInCheckMate()) {
-                        score = StandardBoardEvaluator.CHECK_MATE_BONUS;
-                        break;
-                    }
-                }
-                else if (currentPlayer.isBlack() && currentValue < lowestSeenValue) {
-                    lowestSeenValue = currentValue;
+                final long boardsBefore = this.boardsEvaluated;
+                final int value = searchChild(moveTransition.getToBoard(), depth, 1, currentAlpha, beta, true, 0, 0);
+                final boolean improved = value > currentAlpha;
+                recordRootMove(move, improved, value, this.boardsEvaluated - boardsBefore);
+                if (improved) {
+                    currentAlpha = value;
                     bestMove = move;
-                    if(moveTransition.getToBoard().whitePlayer().isInCheckMate()) {
-                        score = -StandardBoardEvaluator.CHECK_MATE_BONUS;
+                    if (moveTransition.getToBoard().currentPlayer().isInCheckMate()) {
                         break;
                     }
                 }
-
-                final String quiescenceInfo = " " + score(currentPlayer, highestSeenValue, lowestSeenValue) + " q: " +this.quiescenceCount;
-                s = "\t" + toString() + "(" +this.searchDepth+ "), m: (" +moveCounter+ "/" +numMoves+ ") " + move + ", best:  " + bestMove
+                final int whiteValue = currentPlayer.isWhite() ? currentAlpha : -currentAlpha;
+                final String quiescenceInfo = " " + score(whiteValue) + " q: " +this.quiescenceCount;
+                s = "\t" + toString() + "(" +depth+ "), m: (" +moveCounter+ "/" +numMoves+ ") " + move + ", best:  " + bestMove
 
                         + quiescenceInfo + ", t: " +calculateTimeTaken(candidateMoveStartTime, System.nanoTime());
             } else {
                 s = "\t" + toString() + ", m: (" +moveCounter+ "/" +numMoves+ ") " + move + " is illegal! best: " +bestMove;
             }
-            System.out.println(s);
-            setChanged();
-            notifyObservers(s);
+            if (!isHelper()) {
+                System.out.println(s);
+            }
             moveCounter++;
+            if (currentAlpha >= beta) {
+                break;
+            }
         }
 
-        this.executionTime = System.currentTimeMillis() - startTime;
-        final String result = board.currentPlayer() + " SELECTS " +bestMove+ " [#boards evaluated = " +this.boardsEvaluated+
-                " time taken = " +this.executionTime+ " ms, score = " + score;
-        System.out.printf("%s SELECTS %s [#boards evaluated = %d, time taken = %d ms, rate = %.1f, score: %d\n", board.currentPlayer(),
-                bestMove, this.boardsEvaluated, this.executionTime, (1000 * ((double)this.boardsEvaluated/this.executionTime)), score);
-        setChanged();
-        notifyObservers(result);
+        this.rootValue = currentAlpha;
+        if (bestMove != MoveFactory.getNullMove()) {
+            store(board, depth, 0, currentAlpha >= beta ? TranspositionTable.Bound.LOWER : TranspositionTable.Bound.EXACT,
+                    currentAlpha, bestMove);
+        }
         return bestMove;
     }
 
-    private String score(final Player currentPlayer,
-                                final int highestSeenValue,
-                                final int lowestSeenValue) {
-        if(currentPlayer.isWhite()) {
-            score = highestSeenValue > StandardBoardEvaluator.CHECK_MATE_BONUS - 1 ? highestSeenValue - searchDepth + 1 :
-                    highestSeenValue < -StandardBoardEvaluator.CHECK_MATE_BONUS + 1 ? highestSeenValue + searchDepth - 1 :
-                            highestSeenValue;
-            return "[score: " +score + "]";
-        } else if(currentPlayer.isBlack()) {
-            score = lowestSeenValue < -StandardBoardEvaluator.CHECK_MATE_BONUS + 1 ? lowestSeenValue + searchDepth - 1 :
-                    lowestSeenValue > StandardBoardEvaluator.CHECK_MATE_BONUS - 1 ? lowestSeenValue - searchDepth + 1 :
-                            lowestSeenValue;
-            return "[score: " +score+ "]";
-        }
-        throw new RuntimeException("bad bad boy!");
-    }
-
-    private int max(final Board board,
-                    final int depth,
-                    final int highest,
-                    final int lowest) {
-        if (board.currentPlayer().isInCheckMate()) {
-            this.boardsEvaluated++;
-            return -StandardBoardEvaluator.CHECK_MATE_BONUS - depth;
+    private Move searchRootSplit(final Board board,
+                                 final List<Move> rootMoves,
+                                 final int depth,
+                                 final int alpha,
+                                 final int beta) {
+        final List<Move> moves = new ArrayList<>();
+        final List<Board> children = new ArrayList<>();
+        for (final Move move : rootMoves) {
+            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+            if (moveTransition.getMoveStatus().isDone()) {
+                moves.add(move);
+                children.add(moveTransition.getToBoard());
+            }
         }
-        if (board.currentPlayer().isInStaleMate() || isRepeatedBoard(board)) {
-            this.boardsEvaluated++;
-            return 0;
+        if (moves.isEmpty()) {
+            this.rootValue = alpha;
+            return MoveFactory.getNullMove();
         }
-        if (depth == 0) {
-            this.boardsEvaluated++;
-            return this.evaluator.evaluate(board, depth);
+        final long startTime = System.nanoTime();
+        Move bestMove = moves.get(0);
+        this.rootMoveOrder.clear();
+        this.quiescenceCount = 0;
+        final long boardsBefore = this.boardsEvaluated;
+        int bestValue = searchChild(children.get(0), depth, 1, alpha, beta, true, 0, 0);
+        recordRootMove(bestMove, bestValue > alpha, bestValue, this.boardsEvaluated - boardsBefore);
+        this.rootValue = bestValue;
+        if (children.get(0).currentPlayer().isInCheckMate()) {
+            return bestMove;
         }
-        int currentHighest = highest;
-        for (final Move move : MoveSorter.STANDARD.sort((board.currentPlayer().getLegalMoves()))) {
-            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
-            if (moveTransition.getMoveStatus().isDone()) {
-                currentHighest = Math.max(currentHighest, min(moveTransition.getToBoard(),
-                        calculateQuiescenceDepth(moveTransition, depth), currentHighest, lowest));
-                if (currentHighest >= lowest) {
-                    return lowest;
+        if (bestValue >= beta) {
+            store(board, depth, 0, TranspositionTable.Bound.LOWER, bestValue, bestMove);
+            return bestMove;
+        }
+        final AtomicInteger bound = new AtomicInteger(Math.max(alpha, bestValue));
+        final StockAlphaBeta[] workers = new StockAlphaBeta[moves.size()];
+        final int[] windows = new int[moves.size()];
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 1; i < moves.size(); i++) {
+            final int index = i;
+            tasks.add(() -> {
+                // workers share the main search's move history: it is only a move ordering hint, so lost or torn
+                // updates from concurrent writes are harmless
+                final StockAlphaBeta worker = new StockAlphaBeta(this, index, this.timeControl, this.moveHistory);
+                worker.iterationDepth = depth;
+                workers[index] = worker;
+                windows[index] = bound.get();
+                try {
+                    final int value = worker.searchChild(children.get(index), depth, 1, windows[index], beta, true, 0, 0);
+                    bound.accumulateAndGet(value, Math::max);
+                    return value;
+                } catch (final SearchAbortedException e) {
+                    return null;
                 }
+            });
+        }
+        final List<Future<Integer>> results = this.pool.invokeAll(tasks);
+        boolean aborted = false;
+        for (int i = 1; i < moves.size(); i++) {
+            final Integer value = getResult(results.get(i - 1));
+            if (workers[i] != null) {
+                mergeCounters(workers[i]);
+            }
+            if (value == null) {
+                aborted = true;
+                continue;
             }
+            final boolean beatWindow = value > windows[i];
+            recordRootMove(moves.get(i), beatWindow, value, workers[i].boardsEvaluated);
+            if (beatWindow && value > bestValue) {
+                bestValue = value;
+                bestMove = moves.get(i);
+            }
+        }
+        if (aborted) {
+            throw new SearchAbortedException();
         }
-        return currentHighest;
+        this.rootValue = Math.max(alpha, Math.min(beta, bestValue));
+        final int whiteValue = board.currentPlayer().isWhite() ? this.rootValue : -this.rootValue;
+        final String s = "\t" + toString() + "(" +depth+ "), " +moves.size()+ " moves split, best:  " + bestMove + " " +
+                score(whiteValue) + ", t: " +calculateTimeTaken(startTime, System.nanoTime());
+        System.out.println(s);
+        store(board, depth, 0, this.rootValue >= beta ? TranspositionTable.Bound.LOWER :
+                        this.rootValue <= alpha ? TranspositionTable.Bound.UPPER : TranspositionTable.Bound.EXACT,
+                this.rootValue, bestMove);
+        return bestMove;
     }
 
-    private int min(final Board board,
-                    final int depth,
-                    final int highest,
-                    final int lowest) {
-        if (board.currentPlayer().isInCheckMate()) {
-            this.boardsEvaluated++;
-            return StandardBoardEvaluator.CHECK_MATE_BONUS + depth;
+    private static Integer getResult(final Future<Integer> result) {
+        try {
+            return result.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
-        if (board.currentPlayer().isInStaleMate() || isRepeatedBoard(board)) {
-            this.boardsEvaluated++;
-            return 0;
+    }
+
+    private String principalVariation(final Board board,
+                                      final int depth) {
+        final StringBuilder pv = new StringBuilder();
+        Board current = board;
+        for (int i = 0; i < depth; i++) {
+            final TranspositionTable.Entry entry = this.transpositionTable.probe(current.getZobristKey());
+            if (entry == null || entry.getBestMove() == PackedMove.NONE) {
+                break;
+            }
+            final Move move = PackedMove.toMove(current, entry.getBestMove());
+            final MoveTransition moveTransition = current.currentPlayer().makeMove(move);
+            if (move == MoveFactory.getNullMove() || !moveTransition.getMoveStatus().isDone()) {
+                break;
+            }
+            pv.append(move).append(' ');
+            current = moveTransition.getToBoard();
         }
+        return pv.toString().trim();
+    }
+
+    /**
+     * Records how a root move did in the current iteration: moves that were the best so far rank above the others
+     * by their score for the side to move, the others by the number of boards it took to refute them.
+     */
+    private void recordRootMove(final Move move,
+                                final boolean bestSoFar,
+                                final int value,
+                                final long boards) {
+        this.rootMoveOrder.put(move, bestSoFar ? BEST_SO_FAR + value : boards);
+    }
+
+    /**
+     * Root order of the next iteration: the best move, then the rest as recorded by {@link #recordRootMove} in the
+     * finished iteration.
+     */
+    private List<Move> sortRootMoves(final List<Move> moves,
+                                     final Move bestMove) {
+        return Ordering.from((Comparator<Move>) (move1, move2) -> ComparisonChain.start()
+                .compareTrueFirst(move1 == bestMove, move2 == bestMove)
+                .compare(this.rootMoveOrder.getOrDefault(move2, -1L), this.rootMoveOrder.getOrDefault(move1, -1L))
+                .result()).immutableSortedCopy(moves);
+    }
+
+    private static String score(final int whiteValue) {
+        return "[score: " +whiteValue+ "]";
+    }
+
+    /**
+     * Value of a child position for the side that moved into it. Unless it is the first move of its node the child
+     * is searched with a null window just above alpha first, and only searched again with the full window when it
+     * turns out better than alpha. A reduced child gets its null window search at the reduced depth first.
+     * {@code extensions} are the extensions of the path down to the child, in {@link #ONE_PLY} units.
+     */
+    private int searchChild(final Board child,
+                            final int depth,
+                            final int ply,
+                            final int alpha,
+                            final int beta,
+                            final boolean fullWindow,
+                            final int reduction,
+                            final int extensions) {
+        if (reduction > 0) {
+            if (-search(child, depth - 1 - reduction, ply, -alpha - 1, -alpha, true, extensions) <= alpha) {
+                return alpha;
+            }
+            this.reductionResearches++;
+        }
+        if (fullWindow) {
+            return -search(child, depth - 1, ply, -beta, -alpha, true, extensions);
+        }
+        final int value = -search(child, depth - 1, ply, -alpha - 1, -alpha, true, extensions);
+        if (value > alpha && value < beta) {
+            this.principalVariationResearches++;
+            return -search(child, depth - 1, ply, -beta, -alpha, true, extensions);
+        }
+        return value;
+    }
+
+    /**
+     * Negamax alpha-beta search: the value is from the side to move's point of view and stays within
+     * [alpha, beta].
+     */
+    private int search(final Board board,
+                       final int depth,
+                       final int ply,
+                       final int alpha,
+                       final int beta,
+                       final boolean nullMoveAllowed,
+                       final int extensions) {
+        checkTime();
         if (depth == 0) {
+            if (isRepeatedBoard(board)) {
+                this.boardsEvaluated++;
+                return 0;
+            }
+            return startQuiescence(board, ply, alpha, beta);
+        }
+        if (isRepeatedBoard(board)) {
             this.boardsEvaluated++;
-            return this.evaluator.evaluate(board, depth);
+            return 0;
         }
-        int currentLowest = lowest;
-        for (final Move move : MoveSorter.STANDARD.sort((board.currentPlayer().getLegalMoves()))) {
-            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+        // mate distance pruning: no line from here can end sooner than being mated now or mating on the next ply
+        if (-MATE + ply >= beta) {
+            return beta;
+        }
+        if (MATE - ply - 1 <= alpha) {
+            return alpha;
+        }
+        final TranspositionTable.Entry entry = this.transpositionTable.probe(board.getZobristKey());
+        final int cutoff = probeCutoff(entry, depth, ply, alpha, beta);
+        if (cutoff != NO_CUTOFF) {
+            return cutoff;
+        }
+        final boolean inCheck = board.currentPlayer().isInCheck();
+        final boolean principalVariationNode = beta - alpha > 1;
+        final int staticEvaluation = inCheck ? -INFINITE : evaluate(board);
+        if (!inCheck && !principalVariationNode && !isMateScore(beta)) {
+            if (this.selectivity.isReverseFutile(depth, staticEvaluation, beta)) {
+                return beta;
+            }
+            if (this.selectivity.isRazoring(depth, staticEvaluation, alpha) && startQuiescence(board, ply, alpha, alpha + 1) <= alpha) {
+                return alpha;
+            }
+            if (nullMoveAllowed && isNullMoveCutoff(board, depth, ply, beta, staticEvaluation, extensions)) {
+                store(board, depth, ply, TranspositionTable.Bound.LOWER, beta, MoveFactory.getNullMove());
+                return beta;
+            }
+        }
+        final boolean futile = !inCheck && this.selectivity.isFutile(depth, staticEvaluation, alpha);
+        final Move ownPreviousMove = MoveHistory.ownPreviousMove(board);
+        int currentAlpha = alpha;
+        Move bestMove = MoveFactory.getNullMove();
+        final List<Move> searchedQuiets = new ArrayList<>();
+        final MovePicker movePicker = new MovePicker(board, entry != null ? entry.getBestMove() : PackedMove.NONE,
+                this.moveHistory, ply);
+        boolean hasLegalMove = false;
+        int legalMoves = 0;
+        for (Move move = movePicker.next(); move != MoveFactory.getNullMove(); move = movePicker.next()) {
+            final int extension = extension(board, move, extensions);
+            final boolean quiet = MovePicker.isQuiet(move) && !inCheck && extension == 0;
+            if (quiet && futile && hasLegalMove) {
+                continue;
+            }
+            final MoveTransition moveTransition = board.currentPlayer().makePseudoLegalMove(move);
             if (moveTransition.getMoveStatus().isDone()) {
-                currentLowest = Math.min(currentLowest, max(moveTransition.getToBoard(),
-                        calculateQuiescenceDepth(moveTransition, depth), highest, currentLowest));
-                if (currentLowest <= highest) {
-                    return highest;
+                final int reduction = quiet ? lateMoveReduction(depth, legalMoves, move, ownPreviousMove) : 0;
+                final int extended = extensions + extension;
+                final int value = searchChild(moveTransition.getToBoard(), depth + extended / ONE_PLY - extensions / ONE_PLY,
+                        ply + 1, currentAlpha, beta, !hasLegalMove, reduction, extended);
+                hasLegalMove = true;
+                legalMoves++;
+                if (value > currentAlpha) {
+                    currentAlpha = value;
+                    bestMove = move;
+                }
+                if (currentAlpha >= beta) {
+                    updateMoveHistory(board, depth, ply, move, searchedQuiets);
+                    store(board, depth, ply, TranspositionTable.Bound.LOWER, beta, bestMove);
+                    return beta;
+                }
+                if (MovePicker.isQuiet(move)) {
+                    searchedQuiets.add(move);
+                }
+                if (isSplitNode(depth)) {
+                    final SplitPoint node = searchBrothers(board, movePicker, depth, ply, currentAlpha, beta, extensions,
+                            inCheck, futile, legalMoves);
+                    if (node.cutoff) {
+                        updateMoveHistory(board, depth, ply, node.bestMove, searchedQuiets);
+                        store(board, depth, ply, TranspositionTable.Bound.LOWER, beta, node.bestMove);
+                        return beta;
+                    }
+                    if (node.alpha > currentAlpha) {
+                        currentAlpha = node.alpha;
+                        bestMove = node.bestMove;
+                    }
+                    break;
                 }
             }
         }
-        return currentLowest;
+        if (!hasLegalMove) {
+            this.boardsEvaluated++;
+            return inCheck ? -MATE + ply : 0;
+        }
+        store(board, depth, ply, bestMove == MoveFactory.getNullMove() ? TranspositionTable.Bound.UPPER : TranspositionTable.Bound.EXACT,
+                currentAlpha, bestMove);
+        return currentAlpha;
     }
 
-    private int calculateQuiescenceDepth(final MoveTransition moveTransition,
-                                         final int depth) {
-//        if(depth == 1 && this.quiescenceCount < MAX_QUIESCENCE) {
-        if(depth == 1) {
-            int activityMeasure = 0;
-            if (moveTransition.getToBoard().currentPlayer().isInCheck()) {
-//                activityMeasure += 1;
-                return 1;
+    private void checkTime() {
+        if (this.stopped || (this.splitPoint != null && this.splitPoint.isAborted()) ||
+                (this.iterationDepth > 1 && this.timeControl.isHardExpired())) {
+            throw new SearchAbortedException();
+        }
+    }
+
+    private boolean isSplitNode(final int depth) {
+        return this.pool != null && this.parallelism == Parallelism.YOUNG_BROTHERS_WAIT && depth >= MIN_SPLIT_DEPTH;
+    }
+
+    /**
+     * Young Brothers Wait: the moves of a node left after its eldest brother are searched in parallel, each by a
+     * worker of its own that shares the transposition table and the move history. Brothers are searched against the
+     * alpha of the {@link SplitPoint}, which rises as they return, and the first one to reach beta aborts the others.
+     * Throws {@link SearchAbortedException} when brothers were aborted for any other reason: the time limit or a
+     * cutoff at a split point above.
+     */
+    private SplitPoint searchBrothers(final Board board,
+                                      final MovePicker movePicker,
+                                      final int depth,
+                                      final int ply,
+                                      final int alpha,
+                                      final int beta,
+                                      final int extensions,
+                                      final boolean inCheck,
+                                      final boolean futile,
+                                      final int searchedMoves) {
+        final SplitPoint node = new SplitPoint(this.splitPoint, alpha, beta);
+        final Move ownPreviousMove = MoveHistory.ownPreviousMove(board);
+        final List<BrotherTask> brothers = new ArrayList<>();
+        for (Move move = movePicker.next(); move != MoveFactory.getNullMove(); move = movePicker.next()) {
+            final int extension = extension(board, move, extensions);
+            final boolean quiet = MovePicker.isQuiet(move) && !inCheck && extension == 0;
+            if (quiet && futile) {
+                continue;
             }
-            Move currentMove = moveTransition.getToBoard().getTransitionMove();
-            if ((currentMove != Move.MoveFactory.getNullMove() && currentMove.isAttack())) {
-                return 1;
+            final int reduction = quiet ? lateMoveReduction(depth, searchedMoves + brothers.size(), move, ownPreviousMove) : 0;
+            final int extended = extensions + extension;
+            brothers.add(new BrotherTask(node, board, move, depth + extended / ONE_PLY - extensions / ONE_PLY, ply + 1,
+                    reduction, extended));
+        }
+        if (brothers.isEmpty()) {
+            return node;
+        }
+        prepareForSharing(board);
+        ForkJoinTask.invokeAll(brothers);
+        boolean aborted = false;
+        for (final BrotherTask brother : brothers) {
+            if (brother.worker != null) {
+                mergeCounters(brother.worker);
             }
+            aborted |= brother.aborted;
+        }
+        if (aborted && !node.cutoff) {
+            throw new SearchAbortedException();
+        }
+        return node;
+    }
+
+    /**
+     * Null-move pruning: if the side to move can pass and a search reduced by {@link #nullMoveReduction} still fails
+     * high, the node is expected to fail high too. Not tried in check, at shallow depth, when the static evaluation is
+     * already below beta, and when the side to move has nothing but king and pawns, where passing is often the best
+     * move (zugzwang). From {@link #NULL_MOVE_VERIFICATION_DEPTH} on, a fail high is only trusted when a reduced
+     * search of the node itself, without null moves, fails high as well.
+     */
+    private boolean isNullMoveCutoff(final Board board,
+                                     final int depth,
+                                     final int ply,
+                                     final int beta,
+                                     final int staticEvaluation,
+                                     final int extensions) {
+        if (!this.selectivity.isNullMovePruning() || depth < NULL_MOVE_MIN_DEPTH || !hasPieces(board) ||
+                staticEvaluation < beta) {
+            return false;
+        }
+        final int reducedDepth = Math.max(0, depth - 1 - nullMoveReduction(depth));
+        final Board nullMoveBoard = MoveFactory.createNullMove(board).execute();
+        if (-search(nullMoveBoard, reducedDepth, ply + 1, -beta, -beta + 1, false, extensions) < beta) {
+            return false;
+        }
+        if (depth >= NULL_MOVE_VERIFICATION_DEPTH &&
+                search(board, reducedDepth, ply, beta - 1, beta, false, extensions) < beta) {
+            return false;
+        }
+        this.nullMoveCutoffs++;
+        return true;
+    }
+
+    /**
+     * Adaptive R: 3 plies in deep subtrees, where the saving is large, and 2 near the leaves, where a reduction of 3
+     * would go straight into the quiescence search.
+     */
+    private static int nullMoveReduction(final int depth) {
+        return depth > NULL_MOVE_ADAPTIVE_DEPTH ? 3 : 2;
+    }
+
+    /**
+     * Extension of a move in {@link #ONE_PLY} units: a full ply for a check, half a ply for a recapture on the square
+     * of the previous capture or a pawn push to the seventh rank. Fractions add up along the path, and the path may
+     * not be extended by more than half of the nominal iteration depth, so forcing lines cannot grow without bound.
+     */
+    private int extension(final Board board,
+                          final Move move,
+                          final int extensions) {
+        final int budget = this.iterationDepth * ONE_PLY / 2 - extensions;
+        if (budget <= 0) {
             return 0;
-//            for(final Move move: BoardUtils.lastNMoves(moveTransition.getToBoard(), 2)) {
-//                if(move.isAttack()) {
-//                    activityMeasure += 1;
-//                }
-//            }
-//            if(activityMeasure >= 2) {
-//                this.quiescenceCount++;
-//                return 1;
-//            }
         }
-        return depth - 1;
+        final int extension;
+        if (givesCheck(move)) {
+            extension = CHECK_EXTENSION;
+        } else if (isRecapture(board, move)) {
+            extension = RECAPTURE_EXTENSION;
+        } else if (isPawnToSeventh(move)) {
+            extension = PAWN_TO_SEVENTH_EXTENSION;
+        } else {
+            return 0;
+        }
+        return Math.min(extension, budget);
+    }
+
+    private static boolean isRecapture(final Board board,
+                                       final Move move) {
+        final Move previousMove = board.getTransitionMove();
+        return move.isAttack() && previousMove.isAttack() &&
+                move.getDestinationCoordinate() == previousMove.getDestinationCoordinate();
+    }
+
+    private static boolean isPawnToSeventh(final Move move) {
+        final Piece piece = move.getMovedPiece();
+        final Alliance alliance = piece.getAlliance();
+        return piece.is(PieceType.PAWN) && move.getPromotionPiece() == null &&
+                alliance.isPawnPromotionSquare(move.getDestinationCoordinate() + alliance.getPositionByDirection(0x10));
+    }
+
+    /**
+     * The reduction of {@link Selectivity#lateMoveReduction}, one ply less for a quiet move with a good history and
+     * one more for a bad one, always leaving at least one ply to search.
+     */
+    private int lateMoveReduction(final int depth,
+                                  final int moveNumber,
+                                  final Move move,
+                                  final Move ownPreviousMove) {
+        int reduction = this.selectivity.lateMoveReduction(depth, moveNumber);
+        if (reduction == 0) {
+            return 0;
+        }
+        final int history = this.moveHistory.getScore(move, ownPreviousMove);
+        if (history > MoveHistory.MAX_HISTORY / 2) {
+            reduction--;
+        } else if (history < -MoveHistory.MAX_HISTORY / 2) {
+            reduction++;
+        }
+        return Math.max(0, Math.min(reduction, depth - 2));
+    }
+
+    /**
+     * A mate found within the nominal depth of the iteration is forced and no deeper iteration can find a shorter
+     * one; a mate behind extensions may still get shorter.
+     */
+    private boolean isProvenMate(final int depth) {
+        return isMateScore(this.rootValue) && MATE - Math.abs(this.rootValue) <= depth;
+    }
+
+    private static boolean isMateScore(final int value) {
+        return Math.abs(value) >= MATE - MAX_MATE_PLY;
+    }
+
+    private static boolean hasPieces(final Board board) {
+        final Bitboards bitboards = board.getBitboards();
+        final Alliance alliance = board.currentPlayer().getAlliance();
+        return (bitboards.getOccupancy(alliance) & ~bitboards.getPieces(alliance, PieceType.PAWN) &
+                ~bitboards.getPieces(alliance, PieceType.KING)) != 0;
+    }
+
+    /**
+     * Entry from the main search into the quiescence search: every quiescence search gets its own budget of
+     * {@link #MAX_QUIESCENCE} nodes, past which its leaves are evaluated statically.
+     */
+    private int startQuiescence(final Board board,
+                                final int ply,
+                                final int alpha,
+                                final int beta) {
+        this.quiescenceLimit = this.quiescenceCount + MAX_QUIESCENCE;
+        return quiescence(board, ply, alpha, beta);
+    }
+
+    private int quiescence(final Board board,
+                           final int ply,
+                           final int alpha,
+                           final int beta) {
+        checkTime();
+        this.boardsEvaluated++;
+        this.quiescenceCount++;
+        final Player player = board.currentPlayer();
+        if (player.isInCheck()) {
+            if (!player.hasEscapeMoves()) {
+                return -MATE + ply;
+            }
+            if (this.quiescenceCount > this.quiescenceLimit) {
+                return Math.max(alpha, Math.min(beta, evaluate(board)));
+            }
+            int currentAlpha = alpha;
+            for (final Move move : MoveSorter.STANDARD.sort(player.getLegalMoves())) {
+                final MoveTransition moveTransition = player.makePseudoLegalMove(move);
+                if (moveTransition.getMoveStatus().isDone()) {
+                    currentAlpha = Math.max(currentAlpha, -quiescence(moveTransition.getToBoard(), ply + 1, -beta, -currentAlpha));
+                    if (currentAlpha >= beta) {
+                        return beta;
+                    }
+                }
+            }
+            return currentAlpha;
+        }
+        final int standPat = evaluate(board);
+        if (standPat >= beta) {
+            return beta;
+        }
+        int currentAlpha = Math.max(alpha, standPat);
+        if (this.quiescenceCount > this.quiescenceLimit) {
+            return currentAlpha;
+        }
+        for (final Move move : sortCaptures(player.calculateAttackMoves())) {
+            if (standPat + captureGain(move) + DELTA_MARGIN <= currentAlpha || see(move) < 0) {
+                continue;
+            }
+            final MoveTransition moveTransition = player.makePseudoLegalMove(move);
+            if (moveTransition.getMoveStatus().isDone()) {
+                currentAlpha = Math.max(currentAlpha, -quiescence(moveTransition.getToBoard(), ply + 1, -beta, -currentAlpha));
+                if (currentAlpha >= beta) {
+                    return beta;
+                }
+            }
+        }
+        return currentAlpha;
+    }
+
+    private int evaluate(final Board board) {
+        final int evaluation = this.evaluator.evaluate(board, 0);
+        return board.currentPlayer().isWhite() ? evaluation : -evaluation;
+    }
+
+    private static List<Move> sortCaptures(final List<Move> captures) {
+        captures.sort(MVV_LVA);
+        return captures;
+    }
+
+    private static int captureGain(final Move move) {
+        final int victimValue = move.isAttack() ? move.getAttackedPiece().getPieceValue() : 0;
+        final Piece promotionPiece = move.getPromotionPiece();
+        return promotionPiece != null ?
+                victimValue + promotionPiece.getPieceValue() - move.getMovedPiece().getPieceValue() : victimValue;
+    }
+
+    private int probeCutoff(final TranspositionTable.Entry entry,
+                            final int depth,
+                            final int ply,
+                            final int alpha,
+                            final int beta) {
+        if (entry == null) {
+            return NO_CUTOFF;
+        }
+        this.transpositionHits++;
+        if (entry.getDepth() < depth) {
+            return NO_CUTOFF;
+        }
+        final int score = fromTable(entry.getScore(), ply);
+        final int cutoff;
+        switch (entry.getBound()) {
+            case EXACT:
+                cutoff = Math.max(alpha, Math.min(beta, score));
+                break;
+            case LOWER:
+                cutoff = score >= beta ? beta : NO_CUTOFF;
+                break;
+            case UPPER:
+                cutoff = score <= alpha ? alpha : NO_CUTOFF;
+                break;
+            default:
+                throw new RuntimeException("Unknown bound " + entry.getBound());
+        }
+        if (cutoff != NO_CUTOFF) {
+            this.transpositionCutoffs++;
+        }
+        return cutoff;
+    }
+
+    private void store(final Board board,
+                       final int depth,
+                       final int ply,
+                       final TranspositionTable.Bound bound,
+                       final int score,
+                       final Move bestMove) {
+        this.transpositionTable.store(board.getZobristKey(), depth, bound, toTable(score, ply),
+                bestMove == MoveFactory.getNullMove() ? PackedMove.NONE : PackedMove.fromMove(bestMove));
+    }
+
+    /**
+     * Mate scores count plies from the root, but a table entry may be reached at another ply: it stores them as
+     * plies from its own position instead.
+     */
+    private static int toTable(final int score,
+                               final int ply) {
+        return score >= MATE - MAX_MATE_PLY ? score + ply : score <= -MATE + MAX_MATE_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(final int score,
+                                 final int ply) {
+        return score >= MATE - MAX_MATE_PLY ? score - ply : score <= -MATE + MAX_MATE_PLY ? score + ply : score;
+    }
+
+    private void updateMoveHistory(final Board board,
+                                   final int depth,
+                                   final int ply,
+                                   final Move cutoffMove,
+                                   final List<Move> searchedQuiets) {
+        if (MovePicker.isQuiet(cutoffMove)) {
+            this.moveHistory.update(ply, depth, cutoffMove, board.getTransitionMove(), MoveHistory.ownPreviousMove(board),
+                    searchedQuiets);
+        }
     }
 
     private boolean isRepeatedBoard(Board board) {
         return BoardEvaluator.isRepeatedBoard(board, whiteAktualRepeatedBoards, blackAktualRepeatedBoards);
     }
 
+    /**
+     * A node whose younger brothers are searched in parallel. Alpha only rises; the first brother that reaches beta
+     * cuts the node off, which aborts the brothers still running and every split point below them.
+     */
+    private static final class SplitPoint {
+
+        private final SplitPoint parent;
+        private final int beta;
+        private volatile int alpha;
+        private volatile boolean cutoff;
+        private Move bestMove;
+
+        private SplitPoint(final SplitPoint parent,
+                           final int alpha,
+                           final int beta) {
+            this.parent = parent;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.bestMove = MoveFactory.getNullMove();
+        }
+
+        private synchronized void update(final int value,
+                                         final Move move) {
+            if (this.cutoff || value <= this.alpha) {
+                return;
+            }
+            this.alpha = value;
+            this.bestMove = move;
+            this.cutoff = value >= this.beta;
+        }
+
+        private boolean isAborted() {
+            for (SplitPoint splitPoint = this; splitPoint != null; splitPoint = splitPoint.parent) {
+                if (splitPoint.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * One younger brother of a split point, searched by a worker created for it. The worker starts with the split
+     * point's current alpha and searches with a null window first, like every non-first move.
+     */
+    private final class BrotherTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SplitPoint node;
+        private final Board board;
+        private final Move move;
+        private final int depth;
+        private final int ply;
+        private final int reduction;
+        private final int extensions;
+        private StockAlphaBeta worker;
+        private boolean aborted;
+
+        private BrotherTask(final SplitPoint node,
+                            final Board board,
+                            final Move move,
+                            final int depth,
+                            final int ply,
+                            final int reduction,
+                            final int extensions) {
+            this.node = node;
+            this.board = board;
+            this.move = move;
+            this.depth = depth;
+            this.ply = ply;
+            this.reduction = reduction;
+            this.extensions = extensions;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.node.isAborted()) {
+                this.aborted = true;
+                return;
+            }
+            final MoveTransition moveTransition = this.board.currentPlayer().makePseudoLegalMove(this.move);
+            if (!moveTransition.getMoveStatus().isDone()) {
+                return;
+            }
+            // like root split workers, brothers share the move history: lost or torn updates only affect move order
+            this.worker = new StockAlphaBeta(StockAlphaBeta.this, StockAlphaBeta.this.helperIndex,
+                    StockAlphaBeta.this.timeControl, StockAlphaBeta.this.moveHistory);
+            this.worker.iterationDepth = StockAlphaBeta.this.iterationDepth;
+            this.worker.splitPoint = this.node;
+            try {
+                final int value = this.worker.searchChild(moveTransition.getToBoard(), this.depth, this.ply, this.node.alpha,
+                        this.node.beta, false, this.reduction, this.extensions);
+                this.node.update(value, this.move);
+            } catch (final SearchAbortedException e) {
+                this.aborted = true;
+            }
+        }
+    }
+
+    private static final class SearchAbortedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private SearchAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+
     private static String calculateTimeTaken(final long start, final long end) {
         final long timeTaken = (end - start) / 1000000;
         return timeTaken + " ms";
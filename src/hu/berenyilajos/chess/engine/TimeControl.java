@@ -0,0 +1,48 @@
+package hu.berenyilajos.chess.engine;
+
+/**
+ * Time budget of one search. The soft limit is checked between iterations: no new iteration is started once it
+ * has passed. The hard limit is checked inside the search and aborts the running iteration.
+ */
+public final class TimeControl {
+
+    private static final TimeControl FIXED_DEPTH = new TimeControl(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long softLimit;
+    private final long hardLimit;
+    private volatile long startTime;
+
+    public TimeControl(final long softLimit,
+                       final long hardLimit) {
+        if (softLimit < 0 || hardLimit < softLimit) {
+            throw new RuntimeException("Invalid time limits " + softLimit + "/" + hardLimit);
+        }
+        this.softLimit = softLimit;
+        this.hardLimit = hardLimit;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public static TimeControl fixedDepth() {
+        return FIXED_DEPTH;
+    }
+
+    public static TimeControl forMoveTime(final long moveTime) {
+        return new TimeControl(moveTime / 2, moveTime);
+    }
+
+    public void start() {
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public long getElapsed() {
+        return System.currentTimeMillis() - this.startTime;
+    }
+
+    public boolean isSoftExpired() {
+        return this.softLimit != Long.MAX_VALUE && getElapsed() >= this.softLimit;
+    }
+
+    public boolean isHardExpired() {
+        return this.hardLimit != Long.MAX_VALUE && getElapsed() >= this.hardLimit;
+    }
+}
@@ -0,0 +1,174 @@
+package hu.berenyilajos.chess.engine;
+
+import com.google.common.annotations.VisibleForTesting;
+import hu.berenyilajos.chess.board.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size hash table of search results keyed by {@link hu.berenyilajos.chess.board.Board#getZobristKey()}.
+ * Every bucket holds two entries: a depth-preferred one, replaced only by a deeper (or equally deep) result or
+ * one from a newer search, and an always-replace one that takes everything else.
+ * <p>
+ * An entry is two longs in a {@code long[]} chunk of at most 128 MB: the packed data (move, score, depth, bound and
+ * generation) and the key XOR-ed with the data. Threads read and write entries without locking; a torn entry,
+ * half written by one thread and half by another, no longer XORs back to its key and reads as a miss.
+ */
+public final class TranspositionTable {
+
+    public static final int DEFAULT_SIZE_MB = 64;
+    public static final int MAX_SIZE_MB = 16 * 1024;
+
+    private static final int BYTES_PER_BUCKET = 2 * 2 * Long.BYTES;
+    private static final int CHUNK_BUCKET_BITS = 22;
+    private static final int CHUNK_BUCKET_MASK = (1 << CHUNK_BUCKET_BITS) - 1;
+
+    private static final int MOVE_BITS = 26;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + 16;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+    private static final int GENERATION_SHIFT = BOUND_SHIFT + 2;
+    private static final Bound[] BOUNDS = Bound.values();
+
+    private final int sizeInMegabytes;
+    private final long[][] chunks;
+    private final int bucketMask;
+    private int generation;
+
+    public TranspositionTable(final int sizeInMegabytes) {
+        if (sizeInMegabytes < 1 || sizeInMegabytes > MAX_SIZE_MB) {
+            throw new RuntimeException("Invalid transposition table size " + sizeInMegabytes + " MB");
+        }
+        this.sizeInMegabytes = sizeInMegabytes;
+        final int buckets = (int) Long.highestOneBit((long) sizeInMegabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        final int chunkBuckets = Math.min(buckets, 1 << CHUNK_BUCKET_BITS);
+        this.chunks = new long[buckets / chunkBuckets][];
+        for (int i = 0; i < this.chunks.length; i++) {
+            this.chunks[i] = new long[chunkBuckets * 4];
+        }
+        this.bucketMask = buckets - 1;
+    }
+
+    public Entry probe(final long key) {
+        final int bucket = bucket(key);
+        final long[] chunk = this.chunks[bucket >>> CHUNK_BUCKET_BITS];
+        final int index = (bucket & CHUNK_BUCKET_MASK) << 2;
+        final long depthPreferred = chunk[index + 1];
+        if ((chunk[index] ^ depthPreferred) == key && depthPreferred != 0) {
+            return new Entry(depthPreferred);
+        }
+        final long alwaysReplace = chunk[index + 3];
+        if ((chunk[index + 2] ^ alwaysReplace) == key && alwaysReplace != 0) {
+            return new Entry(alwaysReplace);
+        }
+        return null;
+    }
+
+    public void store(final long key,
+                      final int depth,
+                      final Bound bound,
+                      final int score,
+                      final int bestMove) {
+        final int bucket = bucket(key);
+        final long[] chunk = this.chunks[bucket >>> CHUNK_BUCKET_BITS];
+        final int index = (bucket & CHUNK_BUCKET_MASK) << 2;
+        final long depthPreferred = chunk[index + 1];
+        final boolean sameKey = depthPreferred != 0 && (chunk[index] ^ depthPreferred) == key;
+        final int move = bestMove == PackedMove.NONE && sameKey ? move(depthPreferred) : bestMove;
+        final long data = pack(depth, bound, score, move, this.generation);
+        final int slot = depthPreferred == 0 || sameKey || generation(depthPreferred) != (this.generation & 0xFF) ||
+                depth >= depth(depthPreferred) ? index : index + 2;
+        chunk[slot] = key ^ data;
+        chunk[slot + 1] = data;
+    }
+
+    public void newSearch() {
+        this.generation++;
+    }
+
+    public void clear() {
+        for (final long[] chunk : this.chunks) {
+            Arrays.fill(chunk, 0L);
+        }
+        this.generation = 0;
+    }
+
+    public int getSizeInMegabytes() {
+        return this.sizeInMegabytes;
+    }
+
+    /**
+     * Overwrites only the data word of the depth-preferred entry in the bucket of the key, leaving its key word as
+     * it is, like a store of another thread interleaved with the one that wrote the entry.
+     */
+    @VisibleForTesting
+    void tearDepthPreferredEntry(final long key,
+                                 final long data) {
+        final int bucket = bucket(key);
+        this.chunks[bucket >>> CHUNK_BUCKET_BITS][((bucket & CHUNK_BUCKET_MASK) << 2) + 1] = data;
+    }
+
+    private int bucket(final long key) {
+        return (int) (key ^ (key >>> 32)) & this.bucketMask;
+    }
+
+    /**
+     * Move in bits 0-25, score in 26-41, depth in 42-49, bound in 50-51 and generation in 52-59. The bound is
+     * stored as its ordinal plus one, so that no stored entry is all zero bits like an empty slot.
+     */
+    private static long pack(final int depth,
+                             final Bound bound,
+                             final int score,
+                             final int bestMove,
+                             final int generation) {
+        final int clampedScore = Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, score));
+        return (bestMove & ((1L << MOVE_BITS) - 1)) |
+                ((clampedScore & 0xFFFFL) << SCORE_SHIFT) |
+                ((long) Math.min(depth, 0xFF) << DEPTH_SHIFT) |
+                ((long) (bound.ordinal() + 1) << BOUND_SHIFT) |
+                ((long) (generation & 0xFF) << GENERATION_SHIFT);
+    }
+
+    private static int move(final long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    private static int depth(final long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    private static int generation(final long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+
+    public enum Bound {
+        EXACT,
+        LOWER,
+        UPPER
+    }
+
+    public static final class Entry {
+
+        private final long data;
+
+        private Entry(final long data) {
+            this.data = data;
+        }
+
+        public int getDepth() {
+            return depth(this.data);
+        }
+
+        public Bound getBound() {
+            return BOUNDS[((int) (this.data >>> BOUND_SHIFT) & 0x3) - 1];
+        }
+
+        public int getScore() {
+            return (short) (this.data >>> SCORE_SHIFT);
+        }
+
+        public int getBestMove() {
+            return move(this.data);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package hu.berenyilajos.chess.engine;
+
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.Move;
+
+/**
+ * Parallel search with the Young Brothers Wait Concept: {@link StockAlphaBeta} with
+ * {@link StockAlphaBeta.Parallelism#YOUNG_BROTHERS_WAIT}. At every node deep enough to split, the eldest child is
+ * searched first; its younger brothers are then forked onto a work-stealing pool, and a cutoff in any of them aborts
+ * the split point and every split point below it. Everything else, from the transposition table and the quiescence
+ * search to the pruning and the mate scores, is the search of {@link StockAlphaBeta}, so both strategies can be
+ * compared with the same settings.
+ */
+public final class YoungBrothersWaitSearch implements MoveStrategy {
+
+    private final StockAlphaBeta search;
+
+    public YoungBrothersWaitSearch(final StockAlphaBeta.Builder builder) {
+        this.search = builder.setParallelism(StockAlphaBeta.Parallelism.YOUNG_BROTHERS_WAIT).build();
+    }
+
+    @Override
+    public String toString() {
+        return "YBWC";
+    }
+
+    @Override
+    public long getNumBoardsEvaluated() {
+        return this.search.getNumBoardsEvaluated();
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        return this.search.execute(board);
+    }
+}
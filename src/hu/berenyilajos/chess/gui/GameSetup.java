@@ -1,5 +1,7 @@
 package hu.berenyilajos.chess.gui;
 
+import hu.berenyilajos.chess.engine.StockAlphaBeta;
+import hu.berenyilajos.chess.engine.TranspositionTable;
 import hu.berenyilajos.chess.player.Player;
 import hu.berenyilajos.chess.gui.Table.PlayerType;
 
@@ -13,6 +15,11 @@ class GameSetup extends JDialog {
     private PlayerType whitePlayerType;
     private PlayerType blackPlayerType;
     private JSpinner searchDepthSpinner;
+    private JSpinner hashSizeSpinner;
+    private JSpinner moveTimeSpinner;
+    private JSpinner threadsSpinner;
+    private JCheckBox rootSplitCheckBox;
+    private JCheckBox youngBrothersCheckBox;
 
     private static final String HUMAN_TEXT = "Human";
     private static final String COMPUTER_TEXT = "Computer";
@@ -46,6 +53,15 @@ class GameSetup extends JDialog {
 
         myPanel.add(new JLabel("Search"));
         this.searchDepthSpinner = addLabeledSpinner(myPanel, "Search Depth", new SpinnerNumberModel(4, 0, 8, 1));
+        this.hashSizeSpinner = addLabeledSpinner(myPanel, "Hash Size (MB)",
+                new SpinnerNumberModel(TranspositionTable.DEFAULT_SIZE_MB, 1, TranspositionTable.MAX_SIZE_MB, 16));
+        this.moveTimeSpinner = addLabeledSpinner(myPanel, "Move Time (s, 0 = fixed depth)", new SpinnerNumberModel(0, 0, 600, 1));
+        this.threadsSpinner = addLabeledSpinner(myPanel, "Threads",
+                new SpinnerNumberModel(1, 1, Runtime.getRuntime().availableProcessors(), 1));
+        this.rootSplitCheckBox = new JCheckBox("Split Root Moves");
+        myPanel.add(this.rootSplitCheckBox);
+        this.youngBrothersCheckBox = new JCheckBox("Young Brothers Wait");
+        myPanel.add(this.youngBrothersCheckBox);
 
         final JButton cancelButton = new JButton("Cancel");
         final JButton okButton = new JButton("OK");
@@ -105,4 +121,24 @@ class GameSetup extends JDialog {
     int getSearchDepth() {
         return (Integer)this.searchDepthSpinner.getValue();
     }
+
+    int getHashSize() {
+        return (Integer)this.hashSizeSpinner.getValue();
+    }
+
+    int getMoveTime() {
+        return (Integer)this.moveTimeSpinner.getValue();
+    }
+
+    int getThreads() {
+        return (Integer)this.threadsSpinner.getValue();
+    }
+
+    boolean useYoungBrothersWait() {
+        return this.youngBrothersCheckBox.isSelected();
+    }
+
+    StockAlphaBeta.Parallelism getParallelism() {
+        return this.rootSplitCheckBox.isSelected() ? StockAlphaBeta.Parallelism.ROOT_SPLIT : StockAlphaBeta.Parallelism.LAZY_SMP;
+    }
 }
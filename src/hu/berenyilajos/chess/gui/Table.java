@@ -10,6 +10,9 @@ import hu.berenyilajos.chess.player.Player;
 import hu.berenyilajos.chess.engine.MoveStrategy;
 import hu.berenyilajos.chess.engine.StandardBoardEvaluator;
 import hu.berenyilajos.chess.engine.StockAlphaBeta;
+import hu.berenyilajos.chess.engine.TimeControl;
+import hu.berenyilajos.chess.engine.TranspositionTable;
+import hu.berenyilajos.chess.engine.YoungBrothersWaitSearch;
 import hu.berenyilajos.chess.pgn.FenUtilities;
 import hu.berenyilajos.chess.pgn.MySqlGamePersistence;
 import com.google.common.collect.Lists;
@@ -45,6 +48,7 @@ public final class Table extends Observable {
     private final List<Board> repeatedBoards = new ArrayList<>();
     private List<Board> whiteAktualRepeatedBoards = new ArrayList<>();
     private List<Board> blackAktualRepeatedBoards = new ArrayList<>();
+    private TranspositionTable transpositionTable;
     private Board chessBoard;
     private Move computerMove;
     private Piece sourceTile;
@@ -154,6 +158,14 @@ public final class Table extends Observable {
         return this.gameSetup;
     }
 
+    private TranspositionTable getTranspositionTable() {
+        if (this.transpositionTable == null ||
+                this.transpositionTable.getSizeInMegabytes() != this.gameSetup.getHashSize()) {
+            this.transpositionTable = new TranspositionTable(this.gameSetup.getHashSize());
+        }
+        return this.transpositionTable;
+    }
+
     private boolean getHighlightLegalMoves() {
         return this.highlightLegalMoves;
     }
@@ -515,6 +527,9 @@ public final class Table extends Observable {
         repeatedBoards.clear();
         whiteAktualRepeatedBoards.clear();
         blackAktualRepeatedBoards.clear();
+        if (transpositionTable != null) {
+            transpositionTable.clear();
+        }
     }
 
     private static void loadPGNFile(final File pgnFile) {
@@ -653,9 +668,17 @@ public final class Table extends Observable {
 //                        Table.get().getGameBoard().getBlackPieces().size();
 //                //int bonusDepth = Math.min(4, 1 + Math.round((float)32/numPieces));
                 int bonusDepth = pieceValues.get() <= 600 ? 4 : pieceValues.get() <= 2700 ? 2 : 0;
-                final MoveStrategy strategy =
-                        new StockAlphaBeta(Table.get().getGameSetup().getSearchDepth() + bonusDepth, Table.get().getDebugPanel(),
-                                Table.get().whiteAktualRepeatedBoards, Table.get().blackAktualRepeatedBoards);
+                final int moveTime = Table.get().getGameSetup().getMoveTime();
+                final StockAlphaBeta.Builder builder =
+                        new StockAlphaBeta.Builder(moveTime > 0 ? StockAlphaBeta.MAX_SEARCH_DEPTH : Table.get().getGameSetup().getSearchDepth() + bonusDepth)
+                                .setDebugPanel(Table.get().getDebugPanel())
+                                .setRepeatedBoards(Table.get().whiteAktualRepeatedBoards, Table.get().blackAktualRepeatedBoards)
+                                .setTranspositionTable(Table.get().getTranspositionTable())
+                                .setTimeControl(moveTime > 0 ? TimeControl.forMoveTime(moveTime * 1000L) : TimeControl.fixedDepth())
+                                .setThreads(Table.get().getGameSetup().getThreads())
+                                .setParallelism(Table.get().getGameSetup().getParallelism());
+                final MoveStrategy strategy = Table.get().getGameSetup().useYoungBrothersWait() ?
+                        new YoungBrothersWaitSearch(builder) : builder.build();
                 bestMove = strategy.execute(
                         Table.get().getGameBoard());
             }
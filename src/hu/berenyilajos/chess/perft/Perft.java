@@ -0,0 +1,94 @@
+package hu.berenyilajos.chess.perft;
+
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.Move;
+import hu.berenyilajos.chess.board.MoveList;
+import hu.berenyilajos.chess.board.MoveTransition;
+import hu.berenyilajos.chess.board.PackedMove;
+import hu.berenyilajos.chess.board.SearchBoard;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the legal leaf nodes of the move tree below a {@link Board}, going through
+ * {@link hu.berenyilajos.chess.player.Player#makeMove(Move)} exactly like the game does.
+ */
+public final class Perft {
+
+    private Perft() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    public static long perft(final Board board,
+                             final int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                nodes += depth == 1 ? 1 : perft(transition.getToBoard(), depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    public static Map<String, Long> divide(final Board board,
+                                           final int depth) {
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                divide.put(PackedMove.toString(PackedMove.fromMove(move)), perft(transition.getToBoard(), depth - 1));
+            }
+        }
+        return divide;
+    }
+
+    /**
+     * The same count on a {@link SearchBoard}: moves are made and unmade in place, into one reused {@link MoveList}
+     * per ply.
+     */
+    public static long perft(final SearchBoard board,
+                             final int depth) {
+        return perft(board, depth, MoveList.createPerPly(depth + 1));
+    }
+
+    public static Map<String, Long> divide(final SearchBoard board,
+                                           final int depth) {
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        final MoveList[] moveLists = MoveList.createPerPly(depth + 1);
+        final MoveList moves = moveLists[depth];
+        board.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            if (board.make(move)) {
+                divide.put(PackedMove.toString(move), perft(board, depth - 1, moveLists));
+            }
+            board.unmake(move);
+        }
+        return divide;
+    }
+
+    private static long perft(final SearchBoard board,
+                              final int depth,
+                              final MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+        final MoveList moves = moveLists[depth];
+        board.generateMoves(moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            if (board.make(move)) {
+                nodes += depth == 1 ? 1 : perft(board, depth - 1, moveLists);
+            }
+            board.unmake(move);
+        }
+        return nodes;
+    }
+
+}
@@ -0,0 +1,84 @@
+package hu.berenyilajos.chess.perft;
+
+import hu.berenyilajos.chess.board.BitboardMoveGenerator;
+import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.MoveGenerator;
+import hu.berenyilajos.chess.board.PieceMoveGenerator;
+import hu.berenyilajos.chess.board.SearchBoard;
+import hu.berenyilajos.chess.pgn.FenUtilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line perft runner.
+ * <pre>
+ *   PerftRunner [--bitboard|--searchboard] [maxDepth]            run the reference suite up to maxDepth (default 4)
+ *   PerftRunner [--bitboard|--searchboard] perft depth fen...    count the nodes of one position
+ *   PerftRunner [--bitboard|--searchboard] divide depth fen...   print the node count below every root move
+ * </pre>
+ * {@code --searchboard} counts on a {@link SearchBoard} converted from the position instead of on {@link Board}.
+ * Exits with status 1 if a reference count does not match.
+ */
+public final class PerftRunner {
+
+    private static final int DEFAULT_MAX_DEPTH = 4;
+
+    private PerftRunner() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    public static void main(final String[] args) {
+        final List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        final MoveGenerator moveGenerator = arguments.remove("--bitboard") ?
+                BitboardMoveGenerator.get() : PieceMoveGenerator.get();
+        final boolean searchBoard = arguments.remove("--searchboard");
+        if (!arguments.isEmpty() && (arguments.get(0).equals("perft") || arguments.get(0).equals("divide"))) {
+            final int depth = Integer.parseInt(arguments.get(1));
+            final Board board = FenUtilities.createGameFromFEN(String.join(" ", arguments.subList(2, arguments.size())))
+                    .withMoveGenerator(moveGenerator);
+            if (arguments.get(0).equals("divide")) {
+                long total = 0;
+                final Map<String, Long> divide = searchBoard ?
+                        Perft.divide(SearchBoard.fromBoard(board), depth) : Perft.divide(board, depth);
+                for (final Map.Entry<String, Long> entry : divide.entrySet()) {
+                    System.out.println(entry.getKey() + ": " + entry.getValue());
+                    total += entry.getValue();
+                }
+                System.out.println("Nodes: " + total);
+            } else {
+                report(board, depth, -1, searchBoard);
+            }
+            return;
+        }
+        final int maxDepth = arguments.isEmpty() ? DEFAULT_MAX_DEPTH : Integer.parseInt(arguments.get(0));
+        boolean passed = true;
+        for (final PerftPosition position : PerftPosition.values()) {
+            System.out.println(position + " " + position.getFen());
+            final Board board = FenUtilities.createGameFromFEN(position.getFen()).withMoveGenerator(moveGenerator);
+            for (int depth = 1; depth <= Math.min(maxDepth, position.getMaxDepth()); depth++) {
+                passed &= report(board, depth, position.getExpectedNodes(depth), searchBoard);
+            }
+        }
+        System.out.println(passed ? "All perft counts match" : "Perft MISMATCH");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean report(final Board board,
+                                  final int depth,
+                                  final long expectedNodes,
+                                  final boolean searchBoard) {
+        final long start = System.nanoTime();
+        final long nodes = searchBoard ? Perft.perft(SearchBoard.fromBoard(board), depth) : Perft.perft(board, depth);
+        final long elapsed = Math.max(System.nanoTime() - start, 1);
+        final boolean passed = expectedNodes < 0 || nodes == expectedNodes;
+        System.out.println(String.format("  depth %d: %,d nodes in %,d ms (%,d nodes/s)%s", depth, nodes,
+                elapsed / 1_000_000, nodes * 1_000_000_000L / elapsed,
+                passed ? "" : " expected " + expectedNodes));
+        return passed;
+    }
+}
@@ -44,56 +44,66 @@ public class FenUtilities {
                 .replaceAll("2", "--")
                 .replaceAll("1", "-")
                 .toCharArray();
+        final Alliance moveMaker = moveMaker(fenPartitions[1]);
+        final int enPassantPawnPosition = enPassantPawnPosition(fenPartitions, moveMaker);
         int i = 0;
         while (i < boardTiles.length) {
+            final int position = i + (i & ~7);
             switch (boardTiles[i]) {
                 case 'r':
-                    builder.setPiece(new Rook(Alliance.BLACK, i));
+                    builder.setPiece(new Rook(Alliance.BLACK, position));
                     i++;
                     break;
                 case 'n':
-                    builder.setPiece(new Knight(Alliance.BLACK, i));
+                    builder.setPiece(new Knight(Alliance.BLACK, position));
                     i++;
                     break;
                 case 'b':
-                    builder.setPiece(new Bishop(Alliance.BLACK, i));
+                    builder.setPiece(new Bishop(Alliance.BLACK, position));
                     i++;
                     break;
                 case 'q':
-                    builder.setPiece(new Queen(Alliance.BLACK, i));
+                    builder.setPiece(new Queen(Alliance.BLACK, position));
                     i++;
                     break;
                 case 'k':
-                    final boolean isCastled = !blackKingSideCastle && !blackQueenSideCastle;
-                    builder.setPiece(new King(Alliance.BLACK, i, blackKingSideCastle, blackQueenSideCastle));
+                    builder.setPiece(new King(Alliance.BLACK, position, blackKingSideCastle, blackQueenSideCastle));
                     i++;
                     break;
                 case 'p':
-                    builder.setPiece(new Pawn(Alliance.BLACK, i));
+                    final Pawn blackPawn = new Pawn(Alliance.BLACK, position);
+                    builder.setPiece(blackPawn);
+                    if (position == enPassantPawnPosition) {
+                        builder.setEnPassantPawn(blackPawn);
+                    }
                     i++;
                     break;
                 case 'R':
-                    builder.setPiece(new Rook(Alliance.WHITE, i));
+                    builder.setPiece(new Rook(Alliance.WHITE, position));
                     i++;
                     break;
                 case 'N':
-                    builder.setPiece(new Knight(Alliance.WHITE, i));
+                    builder.setPiece(new Knight(Alliance.WHITE, position));
                     i++;
                     break;
                 case 'B':
-                    builder.setPiece(new Bishop(Alliance.WHITE, i));
+                    builder.setPiece(new Bishop(Alliance.WHITE, position));
                     i++;
                     break;
                 case 'Q':
-                    builder.setPiece(new Queen(Alliance.WHITE, i));
+                    builder.setPiece(new Queen(Alliance.WHITE, position));
                     i++;
                     break;
                 case 'K':
-                    builder.setPiece(new King(Alliance.WHITE, i, whiteKingSideCastle, whiteQueenSideCastle));
+                    builder.setPiece(new King(Alliance.WHITE, position, whiteKingSideCastle, whiteQueenSideCastle));
                     i++;
                     break;
                 case 'P':
-                    builder.setPiece(new Pawn(Alliance.WHITE, i));
+                    final Pawn whitePawn = new Pawn(Alliance.WHITE, position);
+                    builder.setPiece(whitePawn);
+                    if (position == enPassantPawnPosition) {
+                        builder.setEnPassantPawn(whitePawn);
+                    }
                     i++;
                     break;
                 case '-':
@@ -103,10 +113,18 @@ public class FenUtilities {
                     throw new RuntimeException("Invalid FEN String " +gameConfiguration);
             }
         }
-        builder.setMoveMaker(moveMaker(fenPartitions[1]));
+        builder.setMoveMaker(moveMaker);
         return builder.build();
     }
 
+    private static int enPassantPawnPosition(final String[] fenPartitions,
+                                             final Alliance moveMaker) {
+        if (fenPartitions.length < 4 || fenPartitions[3].equals("-")) {
+            return -1;
+        }
+        return BoardUtils.INSTANCE.getCoordinateAtPosition(fenPartitions[3]) - moveMaker.getPositionByDirection(0x10);
+    }
+
     private static Alliance moveMaker(final String moveMakerString) {
         if(moveMakerString.equals("w")) {
             return Alliance.WHITE;
@@ -154,8 +172,8 @@ public class FenUtilities {
     private static String calculateEnPassantSquare(final Board board) {
         final Pawn enPassantPawn = board.getEnPassantPawn();
         if(enPassantPawn != null) {
-            return BoardUtils.INSTANCE.getPositionAtCoordinate(enPassantPawn.getPosition() +
-                    (8) * enPassantPawn.getAlliance().getOppositeDirection());
+            return BoardUtils.INSTANCE.getPositionAtCoordinate(enPassantPawn.getPosition() -
+                    enPassantPawn.getAlliance().getPositionByDirection(0x10));
         }
         return "-";
     }
@@ -165,9 +183,7 @@ public class FenUtilities {
         int index = 0;
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
-                final String tileText = board.getPiece(i) == null ? "-" :
-                        board.getPiece(i).getAlliance() == Alliance.WHITE ? board.getPiece(index).toString() :
-                                board.getPiece(index).toString().toLowerCase();
+                final String tileText = board.getPiece(index) == null ? "-" : board.getPiece(index).toString();
                 builder.append(tileText);
                 index++;
             }
@@ -46,6 +46,25 @@ public class Bishop extends Piece {
         return legalMoves;
     }
 
+    @Override
+    public List<Move> calculateAttackMoves(Board board) {
+        final List<Move> attackMoves = new ArrayList<>();
+        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
+            int candidateDestinationCoordinate = this.position;
+            while (isValidTileCoordinate(candidateDestinationCoordinate += currentCandidateOffset)) {
+                final Piece pieceAtDestination = board.getPiece(candidateDestinationCoordinate);
+                if (pieceAtDestination != null) {
+                    if (this.alliance != pieceAtDestination.getAlliance()) {
+                        attackMoves.add(new Move.AttackMove(board, candidateDestinationCoordinate, this,
+                                pieceAtDestination));
+                    }
+                    break;
+                }
+            }
+        }
+        return attackMoves;
+    }
+
     @Override
     public int locationBonus() {
         return this.alliance.bishopBonus(position);
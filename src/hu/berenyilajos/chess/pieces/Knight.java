@@ -44,6 +44,22 @@ public class Knight extends Piece {
         return legalMoves;
     }
 
+    @Override
+    public List<Move> calculateAttackMoves(Board board) {
+        final List<Move> attackMoves = new ArrayList<>();
+        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
+            final int candidateDestinationCoordinate = this.position + currentCandidateOffset;
+            if (isValidTileCoordinate(candidateDestinationCoordinate)) {
+                final Piece pieceAtDestination = board.getPiece(candidateDestinationCoordinate);
+                if (pieceAtDestination != null && this.alliance != pieceAtDestination.getAlliance()) {
+                    attackMoves.add(new Move.AttackMove(board, candidateDestinationCoordinate, this,
+                            pieceAtDestination));
+                }
+            }
+        }
+        return attackMoves;
+    }
+
     @Override
     public int locationBonus() {
         return this.alliance.pawnBonus(position);
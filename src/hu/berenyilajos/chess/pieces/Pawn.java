@@ -74,7 +74,7 @@ public class Pawn extends Piece {
                         }
                     }
                 } else if (board.getEnPassantPawn() != null && board.getEnPassantPawn().getPosition() ==
-                        (this.position + (this.alliance.getOppositeDirection()))) {
+                        (this.position - (this.alliance.getOppositeDirection()))) {
                     final Pawn pieceOnCandidate = board.getEnPassantPawn();
                     if (this.alliance != pieceOnCandidate.getAlliance()) {
                         legalMoves.add(
@@ -107,7 +107,7 @@ public class Pawn extends Piece {
                         }
                     }
                 } else if (board.getEnPassantPawn() != null && board.getEnPassantPawn().getPosition() ==
-                        (this.position - (this.alliance.getOppositeDirection()))) {
+                        (this.position + (this.alliance.getOppositeDirection()))) {
                     final Pawn pieceOnCandidate = board.getEnPassantPawn();
                     if (this.alliance != pieceOnCandidate.getAlliance()) {
                         legalMoves.add(
@@ -120,6 +120,42 @@ public class Pawn extends Piece {
         return legalMoves;
     }
 
+    @Override
+    public List<Move> calculateAttackMoves(Board board) {
+        final List<Move> attackMoves = new ArrayList<>();
+        final int pushCoordinate = this.position + this.alliance.getPositionByDirection(0x10);
+        if (this.alliance.isPawnPromotionSquare(pushCoordinate) && board.getPiece(pushCoordinate) == null) {
+            attackMoves.add(new Move.PawnPromotionMove(
+                    new Move.PawnMove(board, pushCoordinate, this), PieceUtils.INSTANCE.getMovedQueen(this.alliance, pushCoordinate)));
+        }
+        addAttackMove(board, 0x0F, this.position - this.alliance.getOppositeDirection(), attackMoves);
+        addAttackMove(board, 0x11, this.position + this.alliance.getOppositeDirection(), attackMoves);
+        return attackMoves;
+    }
+
+    private void addAttackMove(final Board board,
+                               final int candidateOffset,
+                               final int enPassantCoordinate,
+                               final List<Move> attackMoves) {
+        final int candidateDestinationCoordinate = this.position + this.alliance.getPositionByDirection(candidateOffset);
+        if (!isValidTileCoordinate(candidateDestinationCoordinate)) {
+            return;
+        }
+        final Piece pieceOnCandidate = board.getPiece(candidateDestinationCoordinate);
+        if (pieceOnCandidate != null) {
+            if (this.alliance != pieceOnCandidate.getAlliance()) {
+                final Move.PawnAttackMove attackMove =
+                        new Move.PawnAttackMove(board, candidateDestinationCoordinate, this, pieceOnCandidate);
+                attackMoves.add(this.alliance.isPawnPromotionSquare(candidateDestinationCoordinate) ?
+                        new Move.PawnPromotionAttackMove(attackMove, PieceUtils.INSTANCE.getMovedQueen(this.alliance, candidateDestinationCoordinate)) :
+                        attackMove);
+            }
+        } else if (board.getEnPassantPawn() != null && board.getEnPassantPawn().getPosition() == enPassantCoordinate &&
+                this.alliance != board.getEnPassantPawn().getAlliance()) {
+            attackMoves.add(new Move.PawnEnPassantMove(board, candidateDestinationCoordinate, this, board.getEnPassantPawn()));
+        }
+    }
+
     @Override
     public int locationBonus() {
         return this.alliance.pawnBonus(position);
@@ -53,6 +53,8 @@ public abstract class Piece {
 
     public abstract List<Move> calculateLegalMoves(final Board board);
 
+    public abstract List<Move> calculateAttackMoves(final Board board);
+
     public abstract int locationBonus();
 
     public static boolean isValidTileCoordinate(final int coordinate) {
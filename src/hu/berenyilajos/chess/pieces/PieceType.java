@@ -18,6 +18,10 @@ public enum PieceType {
         this.pieceName = pieceName;
     }
 
+    public int getValue() {
+        return value;
+    }
+
     @Override
     public String toString() {
         return pieceName;
@@ -1,7 +1,6 @@
 package hu.berenyilajos.chess.player;
 
 import hu.berenyilajos.chess.board.Board;
-import hu.berenyilajos.chess.board.BoardUtils;
 import hu.berenyilajos.chess.board.Move;
 import hu.berenyilajos.chess.pieces.Alliance;
 import hu.berenyilajos.chess.pieces.Piece;
@@ -13,12 +12,12 @@ import java.util.List;
 
 public class BlackPlayer extends Player {
 
-    public BlackPlayer(Board board, List<Move> playerLegals, List<Move> opponentLegals) {
-        super(board, playerLegals, opponentLegals);
+    public BlackPlayer(Board board) {
+        super(board);
     }
 
     @Override
-    public List<Move> calculateKingCastles(List<Move> playerLegals, List<Move> opponentLegals) {
+    public List<Move> calculateKingCastles() {
         if(this.isInCheck() || this.isCastled() || !(this.isKingSideCastleCapable() || this.isQueenSideCastleCapable())) {
             return new ArrayList<>(0);
         }
@@ -27,27 +26,24 @@ public class BlackPlayer extends Player {
 
         if(this.playerKing.isFirstMove() && this.playerKing.getPosition() == 0x04 && !this.isInCheck()) {
             //whites king side castle
-            if(this.board.getPiece(0x05) == null && this.board.getPiece(0x06) == null) {
+            if(this.isKingSideCastleCapable() &&
+                    this.board.getPiece(0x05) == null && this.board.getPiece(0x06) == null) {
                 final Piece kingSideRook = this.board.getPiece(0x07);
                 if(kingSideRook != null && kingSideRook.isFirstMove()) {
-                    if(!Player.isAttackOnTile(0x05, opponentLegals) &&
-                            !Player.isAttackOnTile(0x06, opponentLegals) && kingSideRook.is(PieceType.ROOK)) {
-                        if(!BoardUtils.isKingPawnTrap(this.board, this.playerKing, 0x14)) {
-                            kingCastles.add(new Move.KingSideCastleMove(this.board, this.playerKing, 0x06, (Rook) kingSideRook, kingSideRook.getPosition(), 0x05));
-                        }
+                    if(!isAttackedByOpponent(0x05) &&
+                            !isAttackedByOpponent(0x06) && kingSideRook.is(PieceType.ROOK)) {
+                        kingCastles.add(new Move.KingSideCastleMove(this.board, this.playerKing, 0x06, (Rook) kingSideRook, kingSideRook.getPosition(), 0x05));
                     }
                 }
             }
             //whites queen side castle
-            if(this.board.getPiece(0x03) == null && this.board.getPiece(0x02) == null &&
-                    this.board.getPiece(0x00) == null) {
+            if(this.isQueenSideCastleCapable() && this.board.getPiece(0x03) == null &&
+                    this.board.getPiece(0x02) == null && this.board.getPiece(0x01) == null) {
                 final Piece queenSideRook = this.board.getPiece(0x00);
                 if(queenSideRook != null && queenSideRook.isFirstMove()) {
-                    if(!Player.isAttackOnTile(0x02, opponentLegals) &&
-                            !Player.isAttackOnTile(0x03, opponentLegals) && queenSideRook.is(PieceType.ROOK)) {
-                        if(!BoardUtils.isKingPawnTrap(this.board, this.playerKing, 0x14)) {
-                            kingCastles.add(new Move.QueenSideCastleMove(this.board, this.playerKing, 0x02, (Rook) queenSideRook, queenSideRook.getPosition(), 0x03));
-                        }
+                    if(!isAttackedByOpponent(0x02) &&
+                            !isAttackedByOpponent(0x03) && queenSideRook.is(PieceType.ROOK)) {
+                        kingCastles.add(new Move.QueenSideCastleMove(this.board, this.playerKing, 0x02, (Rook) queenSideRook, queenSideRook.getPosition(), 0x03));
                     }
                 }
             }
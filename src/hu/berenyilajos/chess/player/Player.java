@@ -1,6 +1,7 @@
 package hu.berenyilajos.chess.player;
 
 import hu.berenyilajos.chess.board.Board;
+import hu.berenyilajos.chess.board.BoardUtils;
 import hu.berenyilajos.chess.board.Move;
 import hu.berenyilajos.chess.board.MoveTransition;
 import hu.berenyilajos.chess.pieces.Alliance;
@@ -8,7 +9,7 @@ import hu.berenyilajos.chess.pieces.King;
 import hu.berenyilajos.chess.pieces.Piece;
 import hu.berenyilajos.chess.pieces.PieceType;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static hu.berenyilajos.chess.board.Move.MoveStatus;
@@ -17,42 +18,35 @@ public abstract class Player {
 
     protected final Board board;
     protected final King playerKing;
-    protected final List<Move> legalMoves;
-    protected final boolean isInCheck;
+    private List<Move> legalMoves;
+    private Boolean isInCheck;
     protected Boolean hasEscapeMoves;
 
-    Player(final Board board,
-           final List<Move> playerLegals,
-           final List<Move> opponentLegals) {
+    Player(final Board board) {
         this.board = board;
         this.playerKing = establishKing();
-        this.isInCheck = Player.isAttackOnTile(this.playerKing.getPosition(), opponentLegals);
-        playerLegals.addAll(calculateKingCastles(playerLegals, opponentLegals));
-        this.legalMoves = playerLegals;
     }
 
-    public abstract List<Move> calculateKingCastles(List<Move> playerLegals, List<Move> opponentLegals);
+    public abstract List<Move> calculateKingCastles();
 
-    public static boolean isAttackOnTile(int tile, List<Move> opponentLegals) {
-        List<Move> attacsOnTile = new ArrayList<>();
-        for (Move move : opponentLegals) {
-            if (move.getDestinationCoordinate() == tile) {
-                return true;
-            }
-        }
-        return false;
+    protected boolean isAttackedByOpponent(final int tile) {
+        return BoardUtils.isTileAttacked(this.board, tile, getAlliance() == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE);
     }
 
     private King establishKing() {
-        return (King) getActivePieces().stream().filter(piece ->
-                piece.is(PieceType.KING)).findAny().orElseThrow(RuntimeException::new);
+        for (final Piece piece : getActivePieces()) {
+            if (piece.is(PieceType.KING)) {
+                return (King) piece;
+            }
+        }
+        throw new RuntimeException("Should not reach here! " + getAlliance() + " king could not be established!");
     }
 
     public boolean hasEscapeMoves() {
         if (hasEscapeMoves != null) {
             return hasEscapeMoves;
         }
-        for (Move move : this.legalMoves) {
+        for (Move move : getLegalMoves()) {
             if (makeMove(move).getMoveStatus().isDone()) {
                 return hasEscapeMoves = true;
             }
@@ -61,14 +55,27 @@ public abstract class Player {
         return hasEscapeMoves = false;
     }
 
+    public List<Move> calculateAttackMoves() {
+        return this.board.calculateAttackMoves(getActivePieces());
+    }
+
     public MoveTransition makeMove(final Move move) {
-        if (!this.legalMoves.contains(move)) {
+        if (!getLegalMoves().contains(move)) {
             return new MoveTransition(this.board, this.board, move, MoveStatus.ILLEGAL_MOVE);
         }
+        return makePseudoLegalMove(move);
+    }
+
+    /**
+     * Plays a move generated for this player's board without looking it up in {@link #getLegalMoves()}; only
+     * whether it leaves the own king in check is verified.
+     */
+    public MoveTransition makePseudoLegalMove(final Move move) {
         final Board transitionedBoard = move.execute();
-        final boolean kingAttacked = Player.isAttackOnTile(
-                transitionedBoard.currentPlayer().getOpponent().getPlayerKing().getPosition(),
-                transitionedBoard.currentPlayer().getLegalMoves());
+        final int kingPosition = move.getMovedPiece().is(PieceType.KING) ?
+                move.getDestinationCoordinate() : this.playerKing.getPosition();
+        final boolean kingAttacked = BoardUtils.isTileAttacked(transitionedBoard, kingPosition,
+                transitionedBoard.currentPlayer().getAlliance());
         if (kingAttacked) {
             return new MoveTransition(this.board, this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
         }
@@ -78,7 +85,12 @@ public abstract class Player {
     public abstract Player getOpponent();
 
     public List<Move> getLegalMoves() {
-        return legalMoves;
+        if (this.legalMoves == null) {
+            final List<Move> standardMoves = this.board.calculateLegalMoves(getActivePieces());
+            standardMoves.addAll(calculateKingCastles());
+            this.legalMoves = Collections.unmodifiableList(standardMoves);
+        }
+        return this.legalMoves;
     }
 
     public King getPlayerKing() {
@@ -86,15 +98,18 @@ public abstract class Player {
     }
 
     public boolean isInCheck() {
+        if (this.isInCheck == null) {
+            this.isInCheck = isAttackedByOpponent(this.playerKing.getPosition());
+        }
         return this.isInCheck;
     }
 
     public boolean isInCheckMate() {
-        return this.isInCheck && !hasEscapeMoves();
+        return isInCheck() && !hasEscapeMoves();
     }
 
     public boolean isInStaleMate() {
-        return !this.isInCheck && !hasEscapeMoves();
+        return !isInCheck() && !hasEscapeMoves();
     }
 
     public boolean isCastled() {
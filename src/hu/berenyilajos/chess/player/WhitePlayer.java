@@ -1,7 +1,6 @@
 package hu.berenyilajos.chess.player;
 
 import hu.berenyilajos.chess.board.Board;
-import hu.berenyilajos.chess.board.BoardUtils;
 import hu.berenyilajos.chess.board.Move;
 import hu.berenyilajos.chess.pieces.Alliance;
 import hu.berenyilajos.chess.pieces.Piece;
@@ -13,12 +12,12 @@ import java.util.List;
 
 public class WhitePlayer extends Player {
 
-    public WhitePlayer(Board board, List<Move> playerLegals, List<Move> opponentLegals) {
-        super(board, playerLegals, opponentLegals);
+    public WhitePlayer(Board board) {
+        super(board);
     }
 
     @Override
-    public List<Move> calculateKingCastles(List<Move> playerLegals, List<Move> opponentLegals) {
+    public List<Move> calculateKingCastles() {
         if(this.isInCheck() || this.isCastled() || !(this.isKingSideCastleCapable() || this.isQueenSideCastleCapable())) {
             return new ArrayList<>(0);
         }
@@ -27,27 +26,24 @@ public class WhitePlayer extends Player {
 
         if(this.playerKing.isFirstMove() && this.playerKing.getPosition() == 0x74 && !this.isInCheck()) {
             //whites king side castle
-            if(this.board.getPiece(0x75) == null && this.board.getPiece(0x76) == null) {
+            if(this.isKingSideCastleCapable() &&
+                    this.board.getPiece(0x75) == null && this.board.getPiece(0x76) == null) {
                 final Piece kingSideRook = this.board.getPiece(0x77);
                 if(kingSideRook != null && kingSideRook.isFirstMove()) {
-                    if(!Player.isAttackOnTile(0x75, opponentLegals) &&
-                            !Player.isAttackOnTile(0x76, opponentLegals) && kingSideRook.is(PieceType.ROOK)) {
-                        if(!BoardUtils.isKingPawnTrap(this.board, this.playerKing, 0x64)) {
-                            kingCastles.add(new Move.KingSideCastleMove(this.board, this.playerKing, 0x76, (Rook) kingSideRook, kingSideRook.getPosition(), 0x75));
-                        }
+                    if(!isAttackedByOpponent(0x75) &&
+                            !isAttackedByOpponent(0x76) && kingSideRook.is(PieceType.ROOK)) {
+                        kingCastles.add(new Move.KingSideCastleMove(this.board, this.playerKing, 0x76, (Rook) kingSideRook, kingSideRook.getPosition(), 0x75));
                     }
                 }
             }
             //whites queen side castle
-            if(this.board.getPiece(0x73) == null && this.board.getPiece(0x72) == null &&
-                    this.board.getPiece(0x70) == null) {
+            if(this.isQueenSideCastleCapable() && this.board.getPiece(0x73) == null &&
+                    this.board.getPiece(0x72) == null && this.board.getPiece(0x71) == null) {
                 final Piece queenSideRook = this.board.getPiece(0x70);
                 if(queenSideRook != null && queenSideRook.isFirstMove()) {
-                    if(!Player.isAttackOnTile(0x72, opponentLegals) &&
-                            !Player.isAttackOnTile(0x73, opponentLegals) && queenSideRook.is(PieceType.ROOK)) {
-                        if(!BoardUtils.isKingPawnTrap(this.board, this.playerKing, 0x64)) {
-                            kingCastles.add(new Move.QueenSideCastleMove(this.board, this.playerKing, 0x72, (Rook) queenSideRook, queenSideRook.getPosition(), 0x73));
-                        }
+                    if(!isAttackedByOpponent(0x72) &&
+                            !isAttackedByOpponent(0x73) && queenSideRook.is(PieceType.ROOK)) {
+                        kingCastles.add(new Move.QueenSideCastleMove(this.board, this.playerKing, 0x72, (Rook) queenSideRook, queenSideRook.getPosition(), 0x73));
                     }
                 }
             }
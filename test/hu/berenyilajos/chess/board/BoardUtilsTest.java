@@ -0,0 +1,63 @@
+package hu.berenyilajos.chess.board;
+
+import hu.berenyilajos.chess.pgn.FenUtilities;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BoardUtilsTest {
+
+    private static Move move(final String fen,
+                             final String from,
+                             final String to) {
+        final Board board = FenUtilities.createGameFromFEN(fen);
+        final int current = BoardUtils.INSTANCE.getCoordinateAtPosition(from);
+        final int destination = BoardUtils.INSTANCE.getCoordinateAtPosition(to);
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.getCurrentCoordinate() == current && move.getDestinationCoordinate() == destination) {
+                return move;
+            }
+        }
+        throw new RuntimeException("No legal move " + from + "-" + to + " in " + fen);
+    }
+
+    @Test
+    public void seeOfUndefendedCapture() {
+        assertEquals(100, BoardUtils.see(move("4k3/8/8/3p4/8/8/8/3RK3 w - - 0 1", "d1", "d5")));
+    }
+
+    @Test
+    public void seeOfCaptureLosingTheCapturer() {
+        assertEquals(-400, BoardUtils.see(move("3rk3/8/8/3p4/8/8/3R4/4K3 w - - 0 1", "d2", "d5")));
+    }
+
+    @Test
+    public void seeCountsRookBehindRook() {
+        assertEquals(100, BoardUtils.see(move("3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2", "d5")));
+    }
+
+    @Test
+    public void seeCountsQueenBehindBishop() {
+        assertEquals(70, BoardUtils.see(move("4k3/8/8/4p3/3n4/2B5/1Q6/4K3 w - - 0 1", "c3", "d4")));
+    }
+
+    @Test
+    public void seeOfEnPassantCapture() {
+        assertEquals(100, BoardUtils.see(move("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5", "d6")));
+    }
+
+    @Test
+    public void seeOfEnPassantCaptureOpensFileBehindCapturedPawn() {
+        assertEquals(100, BoardUtils.see(move("3qk3/8/8/3pP3/8/8/8/3RK3 w - d6 0 1", "e5", "d6")));
+    }
+
+    @Test
+    public void seeLetsKingRecaptureOnUndefendedSquare() {
+        assertEquals(-400, BoardUtils.see(move("8/8/4k3/3p4/8/8/8/3RK3 w - - 0 1", "d1", "d5")));
+    }
+
+    @Test
+    public void seeDoesNotLetKingRecaptureOnDefendedSquare() {
+        assertEquals(100, BoardUtils.see(move("8/8/4k3/3p4/2P5/8/8/3RK3 w - - 0 1", "d1", "d5")));
+    }
+}
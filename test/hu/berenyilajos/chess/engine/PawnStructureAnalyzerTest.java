@@ -0,0 +1,55 @@
+package hu.berenyilajos.chess.engine;
+
+import hu.berenyilajos.chess.pgn.FenUtilities;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PawnStructureAnalyzerTest {
+
+    private static int score(final String fen) {
+        return PawnStructureAnalyzer.get().pawnStructureScore(FenUtilities.createGameFromFEN(fen));
+    }
+
+    @Test
+    public void noPawns() {
+        assertEquals(0, score("8/8/7k/8/8/7K/8/8 w - - 0 1"));
+    }
+
+    @Test
+    public void doubledPawn() {
+        // a3 and b3 connected (+8 each) and passed on the third rank (+15 each), a2 doubled (-15)
+        assertEquals(31, score("8/8/7k/8/8/PP5K/P7/8 w - - 0 1"));
+    }
+
+    @Test
+    public void isolatedPawns() {
+        // a2 and c2 isolated (-15 each) and passed on the second rank (+10 each)
+        assertEquals(-10, score("8/8/7k/8/8/7K/P1P5/8 w - - 0 1"));
+    }
+
+    @Test
+    public void backwardPawn() {
+        // c2 backward (-10): no pawn beside or behind it and d4 guards c3, d3 supported (+8), d4 isolated (-15)
+        assertEquals(13, score("8/8/7k/8/3p4/3P3K/2P5/8 w - - 0 1"));
+    }
+
+    @Test
+    public void passedPawns() {
+        // isolated (-15) and passed on the fourth rank (+40)
+        assertEquals(25, score("8/8/7k/4P3/8/7K/8/8 w - - 0 1"));
+        // isolated (-15) and passed on the sixth rank (+100), for black
+        assertEquals(-85, score("8/8/7k/8/8/7K/3p4/8 w - - 0 1"));
+        // d7 on the next file stops e5 from being passed, both isolated
+        assertEquals(0, score("8/3p4/7k/4P3/8/7K/8/8 w - - 0 1"));
+    }
+
+    @Test
+    public void pawnShieldFollowsKing() {
+        // f2, g2 and h2 connected (+8 each) and passed on the second rank (+10 each)
+        assertEquals(54, score("8/8/7k/8/8/4K3/5PPP/8 w - - 0 1"));
+        // the same pawns shielding the king (+10 each)
+        assertEquals(84, score("8/8/7k/8/8/8/5PPP/6K1 w - - 0 1"));
+        assertEquals(54, score("8/8/7k/8/8/4K3/5PPP/8 w - - 0 1"));
+    }
+}
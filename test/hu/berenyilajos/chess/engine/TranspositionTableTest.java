@@ -0,0 +1,123 @@
+package hu.berenyilajos.chess.engine;
+
+import hu.berenyilajos.chess.board.PackedMove;
+import hu.berenyilajos.chess.engine.TranspositionTable.Bound;
+import hu.berenyilajos.chess.engine.TranspositionTable.Entry;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TranspositionTableTest {
+
+    private static final long KEY = 0x5DEECE66DL * 0x9E3779B97F4A7C15L;
+    private static final int MOVE = (1 << 25) | (12 << 12) | 28;
+
+    private TranspositionTable table;
+
+    @Before
+    public void setUp() {
+        this.table = new TranspositionTable(1);
+    }
+
+    /**
+     * Keys that differ in bits {@code n} and {@code n + 32} fold to the same bucket.
+     */
+    private static long sameBucket(final long key,
+                                   final int bit) {
+        return key ^ (1L << bit) ^ (1L << (bit + 32));
+    }
+
+    @Test
+    public void storeAndProbeRoundTrip() {
+        this.table.store(KEY, 7, Bound.LOWER, -1234, MOVE);
+        final Entry entry = this.table.probe(KEY);
+        assertNotNull(entry);
+        assertEquals(7, entry.getDepth());
+        assertEquals(Bound.LOWER, entry.getBound());
+        assertEquals(-1234, entry.getScore());
+        assertEquals(MOVE, entry.getBestMove());
+    }
+
+    @Test
+    public void everyBoundRoundTrips() {
+        for (final Bound bound : Bound.values()) {
+            this.table.store(KEY, 1, bound, 0, PackedMove.NONE);
+            assertEquals(bound, this.table.probe(KEY).getBound());
+        }
+    }
+
+    @Test
+    public void probeOfUnknownKeyMisses() {
+        assertNull(this.table.probe(KEY));
+        this.table.store(KEY, 3, Bound.EXACT, 10, MOVE);
+        assertNull(this.table.probe(sameBucket(KEY, 8)));
+    }
+
+    @Test
+    public void storeWithoutMoveKeepsMoveOfSameKey() {
+        this.table.store(KEY, 3, Bound.EXACT, 10, MOVE);
+        this.table.store(KEY, 4, Bound.UPPER, -20, PackedMove.NONE);
+        final Entry entry = this.table.probe(KEY);
+        assertEquals(4, entry.getDepth());
+        assertEquals(Bound.UPPER, entry.getBound());
+        assertEquals(MOVE, entry.getBestMove());
+    }
+
+    @Test
+    public void mateScoresRoundTripExactly() {
+        final int mate = StandardBoardEvaluator.CHECK_MATE_BONUS - 7;
+        this.table.store(KEY, 5, Bound.EXACT, mate, MOVE);
+        assertEquals(mate, this.table.probe(KEY).getScore());
+        this.table.store(KEY, 5, Bound.EXACT, -mate, MOVE);
+        assertEquals(-mate, this.table.probe(KEY).getScore());
+    }
+
+    @Test
+    public void scoresOutsideShortRangeAreClamped() {
+        this.table.store(KEY, 5, Bound.LOWER, 40000, MOVE);
+        assertEquals(Short.MAX_VALUE, this.table.probe(KEY).getScore());
+        this.table.store(KEY, 5, Bound.UPPER, -40000, MOVE);
+        assertEquals(Short.MIN_VALUE + 1, this.table.probe(KEY).getScore());
+    }
+
+    @Test
+    public void shallowerEntryOfSameSearchGoesToAlwaysReplaceSlot() {
+        final long second = sameBucket(KEY, 8);
+        final long third = sameBucket(KEY, 9);
+        this.table.store(KEY, 8, Bound.EXACT, 1, MOVE);
+        this.table.store(second, 2, Bound.EXACT, 2, MOVE);
+        assertEquals(8, this.table.probe(KEY).getDepth());
+        assertEquals(2, this.table.probe(second).getDepth());
+        this.table.store(third, 1, Bound.EXACT, 3, MOVE);
+        assertEquals(8, this.table.probe(KEY).getDepth());
+        assertNull(this.table.probe(second));
+        assertEquals(1, this.table.probe(third).getDepth());
+    }
+
+    @Test
+    public void entryOfOlderSearchIsReplacedByShallowerOne() {
+        final long other = sameBucket(KEY, 8);
+        this.table.store(KEY, 8, Bound.EXACT, 1, MOVE);
+        this.table.newSearch();
+        this.table.store(other, 1, Bound.EXACT, 2, MOVE);
+        assertNull(this.table.probe(KEY));
+        assertEquals(1, this.table.probe(other).getDepth());
+    }
+
+    @Test
+    public void tornEntryReadsAsMiss() {
+        this.table.store(KEY, 6, Bound.EXACT, 55, MOVE);
+        this.table.tearDepthPreferredEntry(KEY, (1L << 50) | 77);
+        assertNull(this.table.probe(KEY));
+    }
+
+    @Test
+    public void clearRemovesEveryEntry() {
+        this.table.store(KEY, 6, Bound.EXACT, 55, MOVE);
+        this.table.clear();
+        assertNull(this.table.probe(KEY));
+    }
+}